@@ -0,0 +1,129 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-query latency of an exact scan over {@code size} embeddings, as done by the
+ * {@link SnapshotVectorStore}, with each {@link SimilarityKernel}. The default 384
+ * dimensions keep the largest matrix at 1.5 GB, {@code -p dimensions=1536} needs a larger
+ * heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector", "-Xmx4g" })
+public class SimilarityKernelBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	int size;
+
+	@Param({ "384" })
+	int dimensions;
+
+	@Param({ "scalar", "vectorized" })
+	String kernel;
+
+	private SimilarityKernel similarityKernel;
+
+	private float[][] embeddings;
+
+	private float[] query;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.similarityKernel = "scalar".equals(this.kernel) ? SimilarityKernels.scalar()
+				: SimilarityKernels.vectorized();
+		if (this.similarityKernel == null) {
+			throw new IllegalStateException("The vectorized kernel is not available, run with -Pvector-api");
+		}
+		Random random = new Random(42);
+		this.embeddings = new float[this.size][];
+		for (int i = 0; i < this.size; i++) {
+			this.embeddings[i] = vector(random);
+		}
+		this.query = vector(random);
+	}
+
+	@Benchmark
+	public int dot() {
+		int best = -1;
+		float bestScore = Float.NEGATIVE_INFINITY;
+		for (int row = 0; row < this.embeddings.length; row++) {
+			float score = this.similarityKernel.dot(this.embeddings[row], this.query);
+			if (score > bestScore) {
+				bestScore = score;
+				best = row;
+			}
+		}
+		return best;
+	}
+
+	@Benchmark
+	public int cosine() {
+		int best = -1;
+		float bestScore = Float.NEGATIVE_INFINITY;
+		for (int row = 0; row < this.embeddings.length; row++) {
+			float score = this.similarityKernel.cosine(this.embeddings[row], this.query);
+			if (score > bestScore) {
+				bestScore = score;
+				best = row;
+			}
+		}
+		return best;
+	}
+
+	@Benchmark
+	public int squaredL2() {
+		int best = -1;
+		float bestDistance = Float.POSITIVE_INFINITY;
+		for (int row = 0; row < this.embeddings.length; row++) {
+			float distance = this.similarityKernel.squaredL2(this.embeddings[row], this.query);
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				best = row;
+			}
+		}
+		return best;
+	}
+
+	private float[] vector(Random random) {
+		float[] vector = new float[this.dimensions];
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return vector;
+	}
+
+}
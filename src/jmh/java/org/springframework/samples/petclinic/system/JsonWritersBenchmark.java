@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.samples.petclinic.system;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.Vets;
+
+/**
+ * Serialization of a vet, as done for each vet tool call and vet document, with a mapper
+ * created per call as before and with the shared {@link JsonWriters}, and of a list of
+ * 100 vets streamed by a long-lived mapper and by the shared writers. Run with {@code -Djmh.args="JsonWritersBenchmark -prof gc"} to
+ * compare the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonWritersBenchmark {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private Vet vet;
+
+	private Vets vets;
+
+	private OutputStream out;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		this.vets = new Vets();
+		for (int i = 1; i <= 100; i++) {
+			Vet vet = new Vet();
+			vet.setId(i);
+			vet.setFirstName("First" + i);
+			vet.setLastName("Last" + i);
+			Specialty specialty = new Specialty();
+			specialty.setId(i % 3);
+			specialty.setName(new String[] { "radiology", "surgery", "dentistry" }[i % 3]);
+			vet.addSpecialty(specialty);
+			this.vets.getVetList().add(vet);
+		}
+		this.vet = this.vets.getVetList().get(0);
+		this.out = new OutputStream() {
+
+			@Override
+			public void write(int b) {
+				blackhole.consume(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				blackhole.consume(b);
+			}
+
+		};
+	}
+
+	@Benchmark
+	public String vetWithNewMapper() throws IOException {
+		return new ObjectMapper().writeValueAsString(this.vet);
+	}
+
+	@Benchmark
+	public String vetWithSharedWriter() throws IOException {
+		return JsonWriters.writerFor(Vet.class).writeValueAsString(this.vet);
+	}
+
+	@Benchmark
+	public void vetsWithSharedMapper() throws IOException {
+		this.objectMapper.writeValue(this.out, this.vets);
+	}
+
+	@Benchmark
+	public void vetsWithSharedWriter() throws IOException {
+		JsonWriters.writerFor(Vets.class).writeValue(this.out, this.vets);
+	}
+
+}
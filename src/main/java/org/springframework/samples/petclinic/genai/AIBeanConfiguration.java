@@ -17,10 +17,12 @@
 package org.springframework.samples.petclinic.genai;
 
 import org.springframework.ai.embedding.EmbeddingModel;
-import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.genai.SnapshotVectorStore.Quantization;
 
 /**
  * A Configuration class for beans used by the Chat Client.
@@ -30,9 +32,34 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class AIBeanConfiguration {
 
+	/**
+	 * Brute-force store scanning a memory-mapped snapshot, fine for a few thousand vets.
+	 */
 	@Bean
-	VectorStore vectorStore(EmbeddingModel embeddingModel) {
-		return SimpleVectorStore.builder(embeddingModel).build();
+	@ConditionalOnProperty(name = "petclinic.ai.vectorstore.type", havingValue = "snapshot", matchIfMissing = true)
+	VectorStore vectorStore(EmbeddingModel embeddingModel, EmbeddingCache embeddingCache,
+			@Value("${petclinic.ai.vectorstore.quantization:none}") Quantization quantization,
+			@Value("${petclinic.ai.vectorstore.oversample:8}") int oversample) {
+		return SnapshotVectorStore.builder(new CachingEmbeddingModel(embeddingModel, embeddingCache))
+			.quantization(quantization)
+			.oversample(oversample)
+			.build();
+	}
+
+	/**
+	 * Approximate nearest neighbour store, keeps search latency flat for large corpora.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "petclinic.ai.vectorstore.type", havingValue = "hnsw")
+	VectorStore hnswVectorStore(EmbeddingModel embeddingModel, EmbeddingCache embeddingCache,
+			@Value("${petclinic.ai.vectorstore.hnsw.m:16}") int m,
+			@Value("${petclinic.ai.vectorstore.hnsw.ef-construction:200}") int efConstruction,
+			@Value("${petclinic.ai.vectorstore.hnsw.ef-search:64}") int efSearch) {
+		return HnswVectorStore.builder(new CachingEmbeddingModel(embeddingModel, embeddingCache))
+			.m(m)
+			.efConstruction(efConstruction)
+			.efSearch(efSearch)
+			.build();
 	}
 
 }
@@ -17,21 +17,23 @@
 package org.springframework.samples.petclinic.genai;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.jspecify.annotations.NonNull;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.samples.petclinic.owner.Owner;
 import org.springframework.samples.petclinic.owner.OwnerRepository;
 import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.system.JsonWriters;
 import org.springframework.samples.petclinic.vet.Vet;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Functions that are invoked by the LLM will use this bean to query the system of record
@@ -43,30 +45,95 @@ import java.util.List;
 @Service
 public class AIDataProvider {
 
+	static final int OWNER_PAGE_SIZE = 20;
+
 	private final OwnerRepository ownerRepository;
 
 	private final VectorStore vectorStore;
 
-	public AIDataProvider(OwnerRepository ownerRepository, VectorStore vectorStore) {
+	private final VetIndex vetIndex;
+
+	private final ChatMetrics chatMetrics;
+
+	public AIDataProvider(OwnerRepository ownerRepository, VectorStore vectorStore, VetIndex vetIndex,
+			ChatMetrics chatMetrics) {
 		this.ownerRepository = ownerRepository;
 		this.vectorStore = vectorStore;
+		this.vetIndex = vetIndex;
+		this.chatMetrics = chatMetrics;
 	}
 
-	public List<Owner> getAllOwners() {
-		Pageable pageable = PageRequest.of(0, 100);
-		Page<@NonNull Owner> ownerPage = ownerRepository.findAll(pageable);
-		return ownerPage.getContent();
+	/**
+	 * Find the owners matching all the criteria set on the given search, in id order. The
+	 * search is run as one query on the indexed columns, and returns one page of at most
+	 * {@value #OWNER_PAGE_SIZE} owners after the given cursor, that is after the owner id
+	 * returned as the next cursor of the previous page.
+	 * @param search the criteria to match, {@code null} to match all owners
+	 * @param cursor the next cursor of the previous page, {@code null} for the first page
+	 */
+	public OwnerPage findOwners(OwnerSearch search, Integer cursor) {
+		List<Owner> owners = this.ownerRepository.findBy(matching(search, cursor),
+				query -> query.sortBy(Sort.by("id")).limit(OWNER_PAGE_SIZE + 1).all());
+		if (owners.size() <= OWNER_PAGE_SIZE) {
+			return new OwnerPage(owners, null);
+		}
+		List<Owner> page = owners.subList(0, OWNER_PAGE_SIZE);
+		return new OwnerPage(page, page.get(OWNER_PAGE_SIZE - 1).getId());
 	}
 
-	public List<String> getVets(Vet vet) throws JsonProcessingException {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String vetAsJson = objectMapper.writeValueAsString(vet);
+	// Only the criteria that are set are part of the query, so that it can use their
+	// indexes
+	private static Specification<Owner> matching(OwnerSearch search, Integer cursor) {
+		List<Specification<Owner>> criteria = new ArrayList<>();
+		if (cursor != null) {
+			criteria.add((owner, query, cb) -> cb.greaterThan(owner.get("id"), cursor));
+		}
+		if (search != null) {
+			if (search.ownerId() != null) {
+				criteria.add((owner, query, cb) -> cb.equal(owner.get("id"), search.ownerId()));
+			}
+			if (StringUtils.hasText(search.lastName())) {
+				criteria
+					.add((owner, query, cb) -> cb.like(owner.get("lastName"), startingWith(search.lastName()), '\\'));
+			}
+			if (StringUtils.hasText(search.city())) {
+				criteria.add((owner, query, cb) -> cb.equal(owner.get("city"), search.city().trim()));
+			}
+			if (StringUtils.hasText(search.telephone())) {
+				criteria.add((owner, query, cb) -> cb.equal(owner.get("telephone"), search.telephone().trim()));
+			}
+			if (StringUtils.hasText(search.petName())) {
+				criteria.add((owner, query, cb) -> {
+					// An owner having several matching pets is returned once
+					query.distinct(true);
+					return cb.like(owner.join("pets").get("name"), startingWith(search.petName()), '\\');
+				});
+			}
+		}
+		return Specification.allOf(criteria);
+	}
+
+	private static String startingWith(String prefix) {
+		return prefix.trim().replaceAll("([\\\\%_])", "\\\\$1") + "%";
+	}
 
+	public List<String> getVets(Vet vet) throws JsonProcessingException {
 		// Provide a limit of 50 results when zero parameters are sent
 		int topK = (vet == null) ? 50 : 20;
+
+		// Exact names and specialties are answered from the index, without embedding
+		long start = System.nanoTime();
+		Optional<List<String>> exactMatches = this.vetIndex.find(vet, topK);
+		if (exactMatches.isPresent()) {
+			this.chatMetrics.recordVectorSearch("index", start, exactMatches.get().size());
+			return exactMatches.get();
+		}
+
+		String vetAsJson = JsonWriters.writerFor(Vet.class).writeValueAsString(vet);
 		SearchRequest sr = SearchRequest.builder().query(vetAsJson).topK(topK).build();
 
 		List<Document> topMatches = this.vectorStore.similaritySearch(sr);
+		this.chatMetrics.recordVectorSearch("similarity", start, topMatches.size());
 		return topMatches.stream().map(Document::getText).toList();
 	}
 
@@ -82,4 +149,22 @@ public class AIDataProvider {
 		return ownerRepository.save(owner);
 	}
 
+	/**
+	 * Criteria of an owner search, all optional.
+	 */
+	public record OwnerSearch(
+			@ToolParam(required = false, description = "Owner last name, or its first letters") String lastName,
+			@ToolParam(required = false, description = "Exact city of the owner") String city,
+			@ToolParam(required = false, description = "Exact 10-digit telephone of the owner") String telephone,
+			@ToolParam(required = false, description = "Name of one of the pets, or its first letters") String petName,
+			@ToolParam(required = false, description = "Id of the owner") Integer ownerId) {
+	}
+
+	/**
+	 * One page of owners, with the cursor of the next page or {@code null} on the last
+	 * page.
+	 */
+	public record OwnerPage(List<Owner> owners, Integer nextCursor) {
+	}
+
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory {@link ChatMemoryRepository} holding one conversation per browser session,
+ * within a global budget. Conversations idle for longer than the configured timeout are
+ * dropped, then the least recently used ones until the estimated size of all the messages
+ * fits the budget. The number of messages per conversation is capped by the
+ * {@link org.springframework.ai.chat.memory.MessageWindowChatMemory} in front of it.
+ */
+@Component
+class BoundedChatMemoryRepository implements ChatMemoryRepository, MeterBinder {
+
+	// Rough heap cost of a message besides its text
+	private static final int MESSAGE_OVERHEAD = 128;
+
+	private final long maxBytes;
+
+	private final long idleTimeoutMillis;
+
+	private final Clock clock;
+
+	// Least recently used first, guarded by itself
+	private final LinkedHashMap<String, Conversation> conversations = new LinkedHashMap<>(16, 0.75f, true);
+
+	// Guarded by conversations
+	private long bytes;
+
+	private final AtomicLong idleEvictions = new AtomicLong();
+
+	private final AtomicLong sizeEvictions = new AtomicLong();
+
+	@Autowired
+	BoundedChatMemoryRepository(@Value("${petclinic.ai.chat-memory.max-size:16MB}") DataSize maxSize,
+			@Value("${petclinic.ai.chat-memory.idle-timeout:30m}") Duration idleTimeout) {
+		this(maxSize, idleTimeout, Clock.systemUTC());
+	}
+
+	BoundedChatMemoryRepository(DataSize maxSize, Duration idleTimeout, Clock clock) {
+		this.maxBytes = maxSize.toBytes();
+		this.idleTimeoutMillis = idleTimeout.toMillis();
+		this.clock = clock;
+	}
+
+	@Override
+	public List<String> findConversationIds() {
+		synchronized (this.conversations) {
+			evictIdle();
+			return new ArrayList<>(this.conversations.keySet());
+		}
+	}
+
+	@Override
+	public List<Message> findByConversationId(String conversationId) {
+		synchronized (this.conversations) {
+			evictIdle();
+			Conversation conversation = this.conversations.get(conversationId);
+			if (conversation == null) {
+				return List.of();
+			}
+			this.conversations.put(conversationId, conversation.touch(this.clock.millis()));
+			return conversation.messages();
+		}
+	}
+
+	@Override
+	public void saveAll(String conversationId, List<Message> messages) {
+		Conversation conversation = new Conversation(List.copyOf(messages), size(messages), this.clock.millis());
+		synchronized (this.conversations) {
+			Conversation previous = this.conversations.put(conversationId, conversation);
+			this.bytes += conversation.bytes() - ((previous != null) ? previous.bytes() : 0);
+			evictIdle();
+			// The conversation just saved is the most recently used, it is evicted last
+			Iterator<Conversation> eldest = this.conversations.values().iterator();
+			while (this.bytes > this.maxBytes && eldest.hasNext()) {
+				this.bytes -= eldest.next().bytes();
+				eldest.remove();
+				this.sizeEvictions.incrementAndGet();
+			}
+		}
+	}
+
+	@Override
+	public void deleteByConversationId(String conversationId) {
+		synchronized (this.conversations) {
+			Conversation previous = this.conversations.remove(conversationId);
+			if (previous != null) {
+				this.bytes -= previous.bytes();
+			}
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("chat.memory.conversations", this, repository -> repository.stats()[0])
+			.description("Conversations held in the chat memory")
+			.register(registry);
+		Gauge.builder("chat.memory.size", this, repository -> repository.stats()[1])
+			.description("Estimated size of the messages held in the chat memory")
+			.baseUnit("bytes")
+			.register(registry);
+		FunctionCounter.builder("chat.memory.evictions", this.idleEvictions, AtomicLong::get)
+			.tags("reason", "idle")
+			.description("Conversations dropped from the chat memory")
+			.register(registry);
+		FunctionCounter.builder("chat.memory.evictions", this.sizeEvictions, AtomicLong::get)
+			.tags("reason", "size")
+			.description("Conversations dropped from the chat memory")
+			.register(registry);
+	}
+
+	// Conversation count and estimated size in bytes
+	long[] stats() {
+		synchronized (this.conversations) {
+			return new long[] { this.conversations.size(), this.bytes };
+		}
+	}
+
+	// Idle conversations are the least recently used, so they come first
+	private void evictIdle() {
+		long oldest = this.clock.millis() - this.idleTimeoutMillis;
+		Iterator<Conversation> eldest = this.conversations.values().iterator();
+		while (eldest.hasNext()) {
+			Conversation conversation = eldest.next();
+			if (conversation.lastAccess() > oldest) {
+				break;
+			}
+			this.bytes -= conversation.bytes();
+			eldest.remove();
+			this.idleEvictions.incrementAndGet();
+		}
+	}
+
+	private static long size(List<Message> messages) {
+		long size = 0;
+		for (Message message : messages) {
+			size += MESSAGE_OVERHEAD + length(message.getText());
+			if (message instanceof AssistantMessage assistantMessage) {
+				for (AssistantMessage.ToolCall toolCall : assistantMessage.getToolCalls()) {
+					size += length(toolCall.name()) + length(toolCall.arguments());
+				}
+			}
+			else if (message instanceof ToolResponseMessage toolResponseMessage) {
+				for (ToolResponseMessage.ToolResponse response : toolResponseMessage.getResponses()) {
+					size += length(response.responseData());
+				}
+			}
+		}
+		return size;
+	}
+
+	private static long length(String text) {
+		return (text != null) ? (long) text.length() * Character.BYTES : 0;
+	}
+
+	private record Conversation(List<Message> messages, long bytes, long lastAccess) {
+
+		Conversation touch(long now) {
+			return new Conversation(this.messages, this.bytes, now);
+		}
+
+	}
+
+}
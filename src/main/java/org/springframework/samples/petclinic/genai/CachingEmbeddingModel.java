@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link EmbeddingModel} that looks document embeddings up in an {@link EmbeddingCache}
+ * before calling the delegate, and only sends the documents that were not found. Queries
+ * and raw requests are passed through, they are rarely repeated.
+ */
+class CachingEmbeddingModel implements EmbeddingModel {
+
+	private final EmbeddingModel delegate;
+
+	private final EmbeddingCache cache;
+
+	// Resolved on first use, the dimensions of a remote model may need a call
+	private volatile String modelKey;
+
+	CachingEmbeddingModel(EmbeddingModel delegate, EmbeddingCache cache) {
+		this.delegate = delegate;
+		this.cache = cache;
+	}
+
+	@Override
+	public EmbeddingResponse call(EmbeddingRequest request) {
+		return this.delegate.call(request);
+	}
+
+	@Override
+	public float[] embed(String text) {
+		return this.delegate.embed(text);
+	}
+
+	@Override
+	public float[] embed(Document document) {
+		String text = document.getFormattedContent(MetadataMode.EMBED);
+		float[] embedding = this.cache.get(modelKey(), text);
+		if (embedding == null) {
+			embedding = this.delegate.embed(document);
+			this.cache.put(modelKey(), text, embedding);
+		}
+		return embedding;
+	}
+
+	@Override
+	public List<float[]> embed(List<Document> documents, EmbeddingOptions options, BatchingStrategy batchingStrategy) {
+		float[][] embeddings = new float[documents.size()][];
+		List<Document> missing = new ArrayList<>();
+		List<Integer> missingIndexes = new ArrayList<>();
+		for (int i = 0; i < documents.size(); i++) {
+			embeddings[i] = this.cache.get(modelKey(), documents.get(i).getFormattedContent(MetadataMode.EMBED));
+			if (embeddings[i] == null) {
+				missing.add(documents.get(i));
+				missingIndexes.add(i);
+			}
+		}
+		if (!missing.isEmpty()) {
+			List<float[]> computed = this.delegate.embed(missing, options, batchingStrategy);
+			for (int i = 0; i < missing.size(); i++) {
+				embeddings[missingIndexes.get(i)] = computed.get(i);
+				this.cache.put(modelKey(), missing.get(i).getFormattedContent(MetadataMode.EMBED), computed.get(i));
+			}
+		}
+		return Arrays.asList(embeddings);
+	}
+
+	@Override
+	public int dimensions() {
+		return this.delegate.dimensions();
+	}
+
+	private String modelKey() {
+		String modelKey = this.modelKey;
+		if (modelKey == null) {
+			modelKey = this.cache.modelKey(this.delegate);
+			this.modelKey = modelKey;
+		}
+		return modelKey;
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the chat requests handled at the same time, so that a slow LLM cannot hold all
+ * the request threads of the server and slow down the rest of the application. Requests
+ * beyond the limit wait in a bounded queue, in arrival order. A request is rejected when
+ * the queue is full, or when it waited for the configured timeout.
+ * <p>
+ * Every admitted request must {@link #release() release} its permit.
+ */
+@Component
+class ChatBulkhead implements MeterBinder {
+
+	/**
+	 * Outcome of {@link ChatBulkhead#acquire()}.
+	 */
+	enum Admission {
+
+		ADMITTED, QUEUE_FULL, TIMED_OUT
+
+	}
+
+	private final Semaphore permits;
+
+	private final int maxConcurrent;
+
+	private final int maxQueued;
+
+	private final long queueTimeoutNanos;
+
+	private final Duration retryAfter;
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final AtomicLong queueFullRejections = new AtomicLong();
+
+	private final AtomicLong timeoutRejections = new AtomicLong();
+
+	ChatBulkhead(@Value("${petclinic.ai.chat-bulkhead.max-concurrent:16}") int maxConcurrent,
+			@Value("${petclinic.ai.chat-bulkhead.max-queued:32}") int maxQueued,
+			@Value("${petclinic.ai.chat-bulkhead.queue-timeout:2s}") Duration queueTimeout,
+			@Value("${petclinic.ai.chat-bulkhead.retry-after:5s}") Duration retryAfter) {
+		this.permits = new Semaphore(maxConcurrent, true);
+		this.maxConcurrent = maxConcurrent;
+		this.maxQueued = maxQueued;
+		this.queueTimeoutNanos = queueTimeout.toNanos();
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * Wait for a permit to handle a chat request, at most for the queue timeout.
+	 */
+	Admission acquire() {
+		// Honours the arrival order of the requests already waiting
+		if (tryAcquire(0)) {
+			return Admission.ADMITTED;
+		}
+		if (this.queued.incrementAndGet() > this.maxQueued) {
+			this.queued.decrementAndGet();
+			this.queueFullRejections.incrementAndGet();
+			return Admission.QUEUE_FULL;
+		}
+		try {
+			if (tryAcquire(this.queueTimeoutNanos)) {
+				return Admission.ADMITTED;
+			}
+			this.timeoutRejections.incrementAndGet();
+			return Admission.TIMED_OUT;
+		}
+		finally {
+			this.queued.decrementAndGet();
+		}
+	}
+
+	void release() {
+		this.permits.release();
+	}
+
+	/**
+	 * Delay after which a rejected request should be retried.
+	 */
+	Duration retryAfter() {
+		return this.retryAfter;
+	}
+
+	private boolean tryAcquire(long timeoutNanos) {
+		try {
+			return this.permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge
+			.builder("chat.bulkhead.active", this,
+					bulkhead -> bulkhead.maxConcurrent - bulkhead.permits.availablePermits())
+			.description("Chat requests being handled")
+			.register(registry);
+		Gauge.builder("chat.bulkhead.queued", this.queued, AtomicInteger::get)
+			.description("Chat requests waiting to be handled")
+			.register(registry);
+		FunctionCounter.builder("chat.bulkhead.rejected", this.queueFullRejections, AtomicLong::get)
+			.tags("reason", "queue-full")
+			.description("Chat requests rejected without being handled")
+			.register(registry);
+		FunctionCounter.builder("chat.bulkhead.rejected", this.timeoutRejections, AtomicLong::get)
+			.tags("reason", "timeout")
+			.description("Chat requests rejected without being handled")
+			.register(registry);
+	}
+
+}
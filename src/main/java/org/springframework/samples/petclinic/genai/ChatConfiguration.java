@@ -16,14 +16,22 @@
 
 package org.springframework.samples.petclinic.genai;
 
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
-import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.observation.ToolCallingObservationConvention;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 @Configuration
 class ChatConfiguration {
@@ -31,17 +39,69 @@ class ChatConfiguration {
 	@Value("classpath:/prompts/system.st")
 	private Resource systemResource;
 
+	/**
+	 * Chat memory keeping the last messages of each conversation, in a repository bounded
+	 * in size, see {@link BoundedChatMemoryRepository}.
+	 */
 	@Bean
-	ChatClient chatClient(ChatClient.Builder chatClientBuilder, ChatMemory chatMemory, PetclinicTools petclinicTools) {
+	ChatMemory chatMemory(BoundedChatMemoryRepository chatMemoryRepository,
+			@Value("${petclinic.ai.chat-memory.max-messages:20}") int maxMessages) {
+		return MessageWindowChatMemory.builder()
+			.chatMemoryRepository(chatMemoryRepository)
+			.maxMessages(maxMessages)
+			.build();
+	}
+
+	/**
+	 * Runs the read-only tool calls of a turn in parallel, on virtual threads when they
+	 * are enabled, see {@link ParallelToolCallingManager}. The delegate is built as the
+	 * auto-configured manager that this one replaces. {@code max-parallel} bounds the
+	 * calls of each turn, the number of turns is bounded by the {@link ChatBulkhead}.
+	 */
+	@Bean
+	ToolCallingManager toolCallingManager(ToolCallbackResolver toolCallbackResolver,
+			ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
+			ObjectProvider<ObservationRegistry> observationRegistry,
+			ObjectProvider<ToolCallingObservationConvention> observationConvention,
+			@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+			@Value("${petclinic.ai.tools.max-parallel:8}") int maxParallel) {
+		DefaultToolCallingManager delegate = ToolCallingManager.builder()
+			.observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
+			.toolCallbackResolver(toolCallbackResolver)
+			.toolExecutionExceptionProcessor(toolExecutionExceptionProcessor)
+			.build();
+		observationConvention.ifAvailable(delegate::setObservationConvention);
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("tool-call-");
+		executor.setVirtualThreads(virtualThreads);
+		return new ParallelToolCallingManager(delegate, executor, maxParallel);
+	}
+
+	@Bean
+	ChatClient chatClient(ChatClient.Builder chatClientBuilder, ChatMemory chatMemory, PetclinicTools petclinicTools,
+			ChatRequestCoalescer requestCoalescer, SemanticResponseCache responseCache, ToolResultMemo toolResultMemo,
+			ToolResultFormatter toolResultFormatter, ChatMetrics chatMetrics, ChatTranscriptLogger transcriptLogger) {
 		// @formatter:off
 		return chatClientBuilder
 			.defaultAdvisors(
-				// Chat memory helps us keep context when using the chatbot for up to 10 previous messages.
+				// Chat memory helps us keep context when using the chatbot, per conversation.
 				MessageChatMemoryAdvisor.builder(chatMemory).build(),
-				new SimpleLoggerAdvisor()
+				// Identical first questions asked at the same time share one LLM call
+				requestCoalescer,
+				// Answers similar questions without calling the LLM, see SemanticResponseCache
+				responseCache,
+				// Logs a sample of the turns off the request thread, see ChatTranscriptLogger
+				transcriptLogger,
+				// Records the LLM calls and their tokens, see ChatMetrics
+				chatMetrics
 			)
 			.defaultSystem(systemResource)
-			.defaultTools(petclinicTools)
+			// Read-only tool results are reused within a turn, writes also clear the response cache
+			// and are not shared with coalesced requests.
+			// Results are rendered as compact tables rather than JSON, see ToolResultFormatter
+			.defaultToolCallbacks(MemoizingToolCallback.of(petclinicTools, toolResultMemo, toolResultFormatter, () -> {
+				responseCache.invalidate();
+				requestCoalescer.writeCalled();
+			}, chatMetrics))
 			.build();
 		// @formatter:on
 	}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Records where the time of the chat goes, as meters exported by the actuator:
+ * <ul>
+ * <li>{@code chat.model.calls}, the latency of the calls to the LLM per {@code model} and
+ * {@code outcome}. The chat model runs the tools the LLM asks for, so a call includes the
+ * time of its tool calls;</li>
+ * <li>{@code chat.model.tokens}, the prompt and completion tokens per {@code model} and
+ * {@code type};</li>
+ * <li>{@code chat.tool.calls}, the latency of the tool calls per {@code tool},
+ * {@code outcome} and whether the result was {@code memoized}, see
+ * {@link MemoizingToolCallback};</li>
+ * <li>{@code chat.vector.searches} and {@code chat.vector.search.results}, the latency
+ * and result count of the vet searches per {@code source}, {@code index} when answered by
+ * the {@link VetIndex} and {@code similarity} otherwise.</li>
+ * </ul>
+ * As an advisor, it runs last, so that answers from the {@link SemanticResponseCache} or
+ * shared by the {@link ChatRequestCoalescer} are not recorded as LLM calls.
+ */
+@Component
+class ChatMetrics implements CallAdvisor, StreamAdvisor {
+
+	private final MeterRegistry registry;
+
+	ChatMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+		long start = System.nanoTime();
+		ChatClientResponse response = null;
+		try {
+			response = chain.nextCall(request);
+			return response;
+		}
+		finally {
+			recordModelCall(request, (response != null) ? response.chatResponse() : null, start,
+					(response != null) ? "success" : "error");
+		}
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+		return Flux.defer(() -> {
+			long start = System.nanoTime();
+			// The usage is only known from the last chunks
+			AtomicReference<ChatResponse> last = new AtomicReference<>();
+			// Recorded before the caller sees the stream terminate, unlike doFinally
+			Consumer<String> record = outcome -> recordModelCall(request, last.get(), start, outcome);
+			return chain.nextStream(request).doOnNext(response -> {
+				if (response.chatResponse() != null) {
+					last.set(response.chatResponse());
+				}
+			})
+				.doOnComplete(() -> record.accept("success"))
+				.doOnError(ex -> record.accept("error"))
+				.doOnCancel(() -> record.accept("cancelled"));
+		});
+	}
+
+	@Override
+	public String getName() {
+		return "ChatMetrics";
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 1;
+	}
+
+	/**
+	 * Call the given tool, recording its latency.
+	 */
+	String recordToolCall(String tool, boolean memoized, Supplier<String> call) {
+		long start = System.nanoTime();
+		String outcome = "error";
+		try {
+			String result = call.get();
+			outcome = "success";
+			return result;
+		}
+		finally {
+			Timer.builder("chat.tool.calls")
+				.description("Calls of the tools by the LLM")
+				.tag("tool", tool)
+				.tag("memoized", String.valueOf(memoized))
+				.tag("outcome", outcome)
+				.register(this.registry)
+				.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Record a vet search started at the given {@link System#nanoTime()}.
+	 */
+	void recordVectorSearch(String source, long startNanos, int results) {
+		Timer.builder("chat.vector.searches")
+			.description("Vet searches of the tools")
+			.tag("source", source)
+			.register(this.registry)
+			.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		DistributionSummary.builder("chat.vector.search.results")
+			.description("Vets found by the vet searches of the tools")
+			.tag("source", source)
+			.register(this.registry)
+			.record(results);
+	}
+
+	private void recordModelCall(ChatClientRequest request, ChatResponse response, long startNanos, String outcome) {
+		String model = model(request, response);
+		Timer.builder("chat.model.calls")
+			.description("Calls to the LLM, including the tool calls it asked for")
+			.tag("model", model)
+			.tag("outcome", outcome)
+			.register(this.registry)
+			.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		Usage usage = (response != null) ? response.getMetadata().getUsage() : null;
+		if (usage != null) {
+			countTokens(model, "prompt", usage.getPromptTokens());
+			countTokens(model, "completion", usage.getCompletionTokens());
+		}
+	}
+
+	private void countTokens(String model, String type, Integer tokens) {
+		if (tokens != null && tokens > 0) {
+			Counter.builder("chat.model.tokens")
+				.description("Tokens sent to and generated by the LLM")
+				.tag("model", model)
+				.tag("type", type)
+				.register(this.registry)
+				.increment(tokens);
+		}
+	}
+
+	// The model answering, otherwise the model asked for
+	private static String model(ChatClientRequest request, ChatResponse response) {
+		if (response != null && StringUtils.hasText(response.getMetadata().getModel())) {
+			return response.getMetadata().getModel();
+		}
+		if (request.prompt().getOptions() != null && StringUtils.hasText(request.prompt().getOptions().getModel())) {
+			return request.prompt().getOptions().getModel();
+		}
+		return "unknown";
+	}
+
+}
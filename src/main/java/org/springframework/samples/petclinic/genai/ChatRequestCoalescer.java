@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shares one LLM call between the identical questions asked at the same time. The first
+ * request for a question, normalized as by the {@link SemanticResponseCache}, calls the
+ * LLM, and the requests arriving while it runs wait for its answer instead of making
+ * their own call.
+ * <p>
+ * Only the first turn of a conversation is coalesced: once the chat memory added earlier
+ * messages to the prompt, the answer depends on them and the request is never shared. The
+ * advisor runs after the chat memory advisor, so that the shared answer is remembered in
+ * the conversation of every request.
+ * <p>
+ * Only read-only answers are shared: when a tool that writes was called while the answer
+ * was produced, see {@link #writeCalled()}, the waiting requests make their own call, as
+ * each of them asked for the write. Waiting streams therefore receive the shared answer
+ * once it is complete.
+ */
+@Component
+class ChatRequestCoalescer implements CallAdvisor, StreamAdvisor, MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(ChatRequestCoalescer.class);
+
+	private final boolean enabled;
+
+	// Completed with null when the answer must not be shared
+	private final Map<String, CompletableFuture<ChatClientResponse>> calls = new ConcurrentHashMap<>();
+
+	private final Map<String, SharedStream> streams = new ConcurrentHashMap<>();
+
+	private final AtomicLong coalesced = new AtomicLong();
+
+	// Incremented whenever a tool that writes is called
+	private final AtomicLong writes = new AtomicLong();
+
+	ChatRequestCoalescer(@Value("${petclinic.ai.single-flight.enabled:true}") boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Record that a tool that writes was called, the answers being produced are not
+	 * shared.
+	 */
+	void writeCalled() {
+		this.writes.incrementAndGet();
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+		String key = key(request);
+		if (key == null) {
+			return chain.nextCall(request);
+		}
+		CompletableFuture<ChatClientResponse> call = new CompletableFuture<>();
+		CompletableFuture<ChatClientResponse> inFlight = this.calls.putIfAbsent(key, call);
+		if (inFlight != null) {
+			this.coalesced.incrementAndGet();
+			logger.debug("Waiting for the answer to \"{}\" being produced", key);
+			ChatClientResponse shared;
+			try {
+				shared = inFlight.join();
+			}
+			catch (CompletionException ex) {
+				throw (ex.getCause() instanceof RuntimeException cause) ? cause : ex;
+			}
+			return (shared != null) ? response(request, shared) : chain.nextCall(request);
+		}
+		try {
+			long writes = this.writes.get();
+			ChatClientResponse response = chain.nextCall(request);
+			call.complete((this.writes.get() == writes) ? response : null);
+			return response;
+		}
+		catch (RuntimeException ex) {
+			call.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.calls.remove(key, call);
+		}
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+		return Flux.defer(() -> {
+			String key = key(request);
+			if (key == null) {
+				return chain.nextStream(request);
+			}
+			// Replayed to the requests joining late, cancelled once every request
+			// cancelled
+			AtomicReference<SharedStream> stream = new AtomicReference<>();
+			stream.set(new SharedStream(chain.nextStream(request)
+				.doFinally(signal -> this.streams.remove(key, stream.get()))
+				.replay()
+				.refCount(), this.writes.get()));
+			SharedStream inFlight = this.streams.putIfAbsent(key, stream.get());
+			if (inFlight == null) {
+				return stream.get().responses();
+			}
+			this.coalesced.incrementAndGet();
+			logger.debug("Joining the answer to \"{}\" being streamed", key);
+			return inFlight.responses()
+				.collectList()
+				.flatMapMany(responses -> (this.writes.get() == inFlight.writes())
+						? Flux.fromIterable(responses).map(response -> response(request, response))
+						: chain.nextStream(request));
+		});
+	}
+
+	@Override
+	public String getName() {
+		return "ChatRequestCoalescer";
+	}
+
+	@Override
+	public int getOrder() {
+		return Advisor.DEFAULT_CHAT_MEMORY_PRECEDENCE_ORDER + 50;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("chat.requests.coalesced", this.coalesced, AtomicLong::get)
+			.description("Chat requests that joined the LLM call of an identical concurrent request")
+			.register(registry);
+	}
+
+	/**
+	 * Return the normalized question of the given request, or {@code null} when the
+	 * request must not be coalesced.
+	 */
+	private String key(ChatClientRequest request) {
+		if (!this.enabled) {
+			return null;
+		}
+		return SemanticResponseCache.firstTurnQuestion(request);
+	}
+
+	// The shared answer, with the context of the given request
+	private static ChatClientResponse response(ChatClientRequest request, ChatClientResponse response) {
+		return ChatClientResponse.builder().chatResponse(response.chatResponse()).context(request.context()).build();
+	}
+
+	private record SharedStream(Flux<ChatClientResponse> responses, long writes) {
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Logs the transcript of a sample of the chat turns: the prompt messages, the answer, the
+ * duration and the tokens used. Turns are sampled at
+ * {@code petclinic.ai.transcript.sample-rate}, the others cost nothing.
+ * <p>
+ * The request thread only hands the messages to a bounded ring buffer. A single
+ * background thread formats the transcripts, cutting each message to
+ * {@code petclinic.ai.transcript.max-chars}, and writes them. When the writer falls
+ * behind, the oldest transcripts are dropped rather than slowing down the chat, and
+ * counted in the {@code chat.transcripts} metric.
+ * <p>
+ * The advisor runs right after the chat memory advisor, so that the transcript shows the
+ * conversation as sent to the LLM, and includes the answers from the
+ * {@link SemanticResponseCache}.
+ */
+@Component
+class ChatTranscriptLogger implements CallAdvisor, StreamAdvisor, InitializingBean, DisposableBean, MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(ChatTranscriptLogger.class);
+
+	private final double sampleRate;
+
+	private final int maxChars;
+
+	private final BlockingQueue<Transcript> buffer;
+
+	private final Consumer<String> writer;
+
+	private final AtomicLong written = new AtomicLong();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private Thread drainer;
+
+	@Autowired
+	ChatTranscriptLogger(@Value("${petclinic.ai.transcript.sample-rate:0.1}") double sampleRate,
+			@Value("${petclinic.ai.transcript.max-chars:1000}") int maxChars,
+			@Value("${petclinic.ai.transcript.buffer-size:256}") int bufferSize) {
+		this(sampleRate, maxChars, bufferSize, logger::info);
+	}
+
+	ChatTranscriptLogger(double sampleRate, int maxChars, int bufferSize, Consumer<String> writer) {
+		this.sampleRate = sampleRate;
+		this.maxChars = maxChars;
+		this.buffer = new ArrayBlockingQueue<>(bufferSize);
+		this.writer = writer;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		this.drainer = new Thread(this::drain, "chat-transcript");
+		this.drainer.setDaemon(true);
+		this.drainer.start();
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+		if (!sampled()) {
+			return chain.nextCall(request);
+		}
+		long start = System.nanoTime();
+		ChatResponse chatResponse = null;
+		try {
+			ChatClientResponse response = chain.nextCall(request);
+			chatResponse = response.chatResponse();
+			return response;
+		}
+		finally {
+			String answer = answer(chatResponse);
+			publish(new Transcript(conversationId(request), request.prompt().getInstructions(), answer,
+					(answer != null) ? answer.length() : 0, usage(chatResponse), System.nanoTime() - start,
+					(chatResponse != null) ? "success" : "error"));
+		}
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+		return Flux.defer(() -> {
+			if (!sampled()) {
+				return chain.nextStream(request);
+			}
+			long start = System.nanoTime();
+			// Only the part of the answer that is logged is kept
+			StringBuilder answer = new StringBuilder();
+			AtomicInteger length = new AtomicInteger();
+			AtomicReference<Usage> usage = new AtomicReference<>();
+			Consumer<String> publish = outcome -> publish(
+					new Transcript(conversationId(request), request.prompt().getInstructions(), answer.toString(),
+							length.get(), usage.get(), System.nanoTime() - start, outcome));
+			return chain.nextStream(request).doOnNext(response -> {
+				String text = answer(response.chatResponse());
+				if (text != null) {
+					answer.append(text, 0, Math.min(text.length(), Math.max(0, this.maxChars - answer.length())));
+					length.addAndGet(text.length());
+				}
+				Usage chunkUsage = usage(response.chatResponse());
+				if (chunkUsage != null) {
+					usage.set(chunkUsage);
+				}
+			})
+				.doOnComplete(() -> publish.accept("success"))
+				.doOnError(ex -> publish.accept("error"))
+				.doOnCancel(() -> publish.accept("cancelled"));
+		});
+	}
+
+	@Override
+	public String getName() {
+		return "ChatTranscriptLogger";
+	}
+
+	@Override
+	public int getOrder() {
+		return Advisor.DEFAULT_CHAT_MEMORY_PRECEDENCE_ORDER + 10;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("chat.transcripts", this.written, AtomicLong::get)
+			.description("Chat transcripts logged or dropped")
+			.tag("result", "written")
+			.register(registry);
+		FunctionCounter.builder("chat.transcripts", this.dropped, AtomicLong::get)
+			.description("Chat transcripts logged or dropped")
+			.tag("result", "dropped")
+			.register(registry);
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		if (this.drainer != null) {
+			this.drainer.interrupt();
+			this.drainer.join(TimeUnit.SECONDS.toMillis(5));
+		}
+	}
+
+	private boolean sampled() {
+		return this.sampleRate > 0 && logger.isInfoEnabled()
+				&& ThreadLocalRandom.current().nextDouble() < this.sampleRate;
+	}
+
+	// Ring buffer, the oldest transcript makes room for the newest one
+	private void publish(Transcript transcript) {
+		while (!this.buffer.offer(transcript)) {
+			if (this.buffer.poll() != null) {
+				this.dropped.incrementAndGet();
+			}
+		}
+	}
+
+	private void drain() {
+		try {
+			while (true) {
+				write(this.buffer.take());
+			}
+		}
+		catch (InterruptedException ex) {
+			// Write what is left on shutdown
+			Transcript transcript;
+			while ((transcript = this.buffer.poll()) != null) {
+				write(transcript);
+			}
+		}
+	}
+
+	private void write(Transcript transcript) {
+		try {
+			this.writer.accept(format(transcript));
+			this.written.incrementAndGet();
+		}
+		catch (RuntimeException ex) {
+			logger.warn("Could not write the chat transcript", ex);
+		}
+	}
+
+	private String format(Transcript transcript) {
+		StringBuilder text = new StringBuilder("Chat transcript conversation=").append(transcript.conversationId())
+			.append(" outcome=")
+			.append(transcript.outcome())
+			.append(" duration=")
+			.append(TimeUnit.NANOSECONDS.toMillis(transcript.durationNanos()))
+			.append("ms");
+		if (transcript.usage() != null) {
+			text.append(" tokens=")
+				.append(transcript.usage().getPromptTokens())
+				.append('/')
+				.append(transcript.usage().getCompletionTokens());
+		}
+		for (Message message : transcript.prompt()) {
+			String messageText = message.getText();
+			text.append("\n  ").append(message.getMessageType()).append(": ");
+			append(text, messageText, (messageText != null) ? messageText.length() : 0);
+		}
+		if (transcript.answer() != null) {
+			text.append("\n  ASSISTANT: ");
+			append(text, transcript.answer(), transcript.answerLength());
+		}
+		return text.toString();
+	}
+
+	private void append(StringBuilder text, String value, int length) {
+		if (value == null) {
+			return;
+		}
+		int kept = Math.min(value.length(), this.maxChars);
+		text.append(value, 0, kept);
+		if (length > kept) {
+			text.append("... [").append(length - kept).append(" more chars]");
+		}
+	}
+
+	private static Object conversationId(ChatClientRequest request) {
+		return request.context().get(ChatMemory.CONVERSATION_ID);
+	}
+
+	private static String answer(ChatResponse response) {
+		return (response != null && response.getResult() != null) ? response.getResult().getOutput().getText() : null;
+	}
+
+	private static Usage usage(ChatResponse response) {
+		Usage usage = (response != null) ? response.getMetadata().getUsage() : null;
+		return (usage != null && usage.getTotalTokens() != null && usage.getTotalTokens() > 0) ? usage : null;
+	}
+
+	private record Transcript(Object conversationId, List<Message> prompt, String answer, int answerLength, Usage usage,
+			long durationNanos, String outcome) {
+	}
+
+}
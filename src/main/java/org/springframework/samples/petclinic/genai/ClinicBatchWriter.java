@@ -0,0 +1,236 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetTypeRepository;
+import org.springframework.samples.petclinic.owner.PetValidator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SimpleErrors;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Adds lists of pets or owners, such as a litter or a family, for a single tool call of
+ * the LLM rather than one call per pet or owner. Each item is validated as the forms of
+ * the web application do, the valid items are inserted with one JDBC batch per table, in
+ * a single transaction, and the invalid ones are reported with their errors so that the
+ * LLM can correct and send only those again.
+ * <p>
+ * The inserts bypass Hibernate, which cannot batch inserts of entities having identity
+ * ids. The caches of the chat are cleared as for any tool that writes, see
+ * {@link MemoizingToolCallback}.
+ */
+@Service
+class ClinicBatchWriter {
+
+	private static final String INSERT_OWNER = "INSERT INTO owners (first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?)";
+
+	private static final String INSERT_PET = "INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final OwnerRepository ownerRepository;
+
+	private final PetTypeRepository petTypeRepository;
+
+	private final Validator ownerValidator;
+
+	private final Validator petValidator = new PetValidator();
+
+	ClinicBatchWriter(JdbcTemplate jdbcTemplate, OwnerRepository ownerRepository, PetTypeRepository petTypeRepository,
+			jakarta.validation.Validator validator) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.ownerRepository = ownerRepository;
+		this.petTypeRepository = petTypeRepository;
+		this.ownerValidator = new SpringValidatorAdapter(validator);
+	}
+
+	/**
+	 * Add the given pets to the owner having the given id.
+	 * @return the result of each pet, in order
+	 */
+	@Transactional
+	public List<ItemResult> addPetsToOwner(int ownerId, List<Pet> pets) {
+		Owner owner = this.ownerRepository.findById(ownerId).orElse(null);
+		Set<Integer> petTypeIds = petTypeIds();
+		Set<String> names = new HashSet<>();
+		List<ItemResult> results = new ArrayList<>();
+		List<NewPet> valid = new ArrayList<>();
+		for (int i = 0; i < pets.size(); i++) {
+			Pet pet = pets.get(i);
+			List<String> errors = (owner != null) ? validate(pet, owner, names, petTypeIds)
+					: List.of("ownerId: no owner has this id");
+			results.add(new ItemResult(i, null, errors));
+			if (errors.isEmpty()) {
+				valid.add(new NewPet(i, ownerId, pet));
+			}
+		}
+		List<Integer> ids = insertPets(valid);
+		for (int i = 0; i < valid.size(); i++) {
+			results.set(valid.get(i).index(), new ItemResult(valid.get(i).index(), ids.get(i), List.of()));
+		}
+		return results;
+	}
+
+	/**
+	 * Add the given owners, with their pets if any.
+	 * @return the result of each owner, in order
+	 */
+	@Transactional
+	public List<ItemResult> addOwnersToPetclinic(List<Owner> owners) {
+		Set<Integer> petTypeIds = petTypeIds();
+		List<ItemResult> results = new ArrayList<>();
+		List<Integer> validIndexes = new ArrayList<>();
+		for (int i = 0; i < owners.size(); i++) {
+			Owner owner = owners.get(i);
+			Errors ownerErrors = new SimpleErrors(owner, "owner");
+			this.ownerValidator.validate(owner, ownerErrors);
+			List<String> errors = new ArrayList<>(messages(ownerErrors));
+			Set<String> names = new HashSet<>();
+			for (int p = 0; p < owner.getPets().size(); p++) {
+				String prefix = "pets[" + p + "].";
+				validate(owner.getPets().get(p), null, names, petTypeIds).forEach(error -> errors.add(prefix + error));
+			}
+			results.add(new ItemResult(i, null, errors));
+			if (errors.isEmpty()) {
+				validIndexes.add(i);
+			}
+		}
+		List<Integer> ids = insert(INSERT_OWNER, validIndexes, (ps, index) -> {
+			Owner owner = owners.get(index);
+			ps.setString(1, owner.getFirstName().trim());
+			ps.setString(2, owner.getLastName().trim());
+			ps.setString(3, owner.getAddress().trim());
+			ps.setString(4, owner.getCity().trim());
+			ps.setString(5, owner.getTelephone());
+		});
+		List<NewPet> pets = new ArrayList<>();
+		for (int i = 0; i < validIndexes.size(); i++) {
+			int index = validIndexes.get(i);
+			int ownerId = ids.get(i);
+			results.set(index, new ItemResult(index, ownerId, List.of()));
+			owners.get(index).getPets().forEach(pet -> pets.add(new NewPet(index, ownerId, pet)));
+		}
+		insertPets(pets);
+		return results;
+	}
+
+	private List<String> validate(Pet pet, Owner owner, Set<String> names, Set<Integer> petTypeIds) {
+		pet.setId(null); // Non persistent Pet
+		Errors errors = new SimpleErrors(pet, "pet");
+		this.petValidator.validate(pet, errors);
+		if (StringUtils.hasText(pet.getName())) {
+			boolean known = (owner != null && owner.getPet(pet.getName(), true) != null);
+			if (known || !names.add(pet.getName().trim().toLowerCase(Locale.ROOT))) {
+				errors.rejectValue("name", "duplicate", "is already in use");
+			}
+		}
+		if (pet.getBirthDate() != null && pet.getBirthDate().isAfter(LocalDate.now())) {
+			errors.rejectValue("birthDate", "typeMismatch.birthDate", "invalid date");
+		}
+		if (pet.getType() != null && !petTypeIds.contains(pet.getType().getId())) {
+			errors.rejectValue("type", "unknown", "unknown pet type id");
+		}
+		return messages(errors);
+	}
+
+	private static List<String> messages(Errors errors) {
+		return errors.getFieldErrors()
+			.stream()
+			.map(error -> error.getField() + ": " + error.getDefaultMessage())
+			.toList();
+	}
+
+	private Set<Integer> petTypeIds() {
+		return this.petTypeRepository.findAll().stream().map(BaseEntity::getId).collect(Collectors.toSet());
+	}
+
+	private List<Integer> insertPets(List<NewPet> pets) {
+		return insert(INSERT_PET, pets, (ps, newPet) -> {
+			Pet pet = newPet.pet();
+			ps.setString(1, pet.getName().trim());
+			ps.setDate(2, Date.valueOf(pet.getBirthDate()));
+			ps.setInt(3, pet.getType().getId());
+			ps.setInt(4, newPet.ownerId());
+		});
+	}
+
+	/**
+	 * Insert one row per item, as a single JDBC batch, and return the generated ids in
+	 * order.
+	 */
+	private <T> List<Integer> insert(String sql, List<T> items, ParameterizedPreparedStatementSetter<T> setter) {
+		if (items.isEmpty()) {
+			return List.of();
+		}
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		this.jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						setter.setValues(ps, items.get(i));
+					}
+
+					@Override
+					public int getBatchSize() {
+						return items.size();
+					}
+
+				}, keyHolder);
+		return keyHolder.getKeyList()
+			.stream()
+			.map(Map::values)
+			.map(keys -> ((Number) keys.iterator().next()).intValue())
+			.toList();
+	}
+
+	private record NewPet(int index, int ownerId, Pet pet) {
+	}
+
+	/**
+	 * Result of one item of a batch: the id of the added owner or pet, or the errors that
+	 * prevented adding it.
+	 */
+	record ItemResult(int index, Integer id, List<String> errors) {
+	}
+
+}
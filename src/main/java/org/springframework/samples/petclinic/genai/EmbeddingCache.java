@@ -0,0 +1,218 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed store of document embeddings. Embeddings are keyed by the SHA-256 of
+ * the embedding model and the document text, so a document only needs to be embedded
+ * again when its text or the model changes. The model is identified by the configured
+ * model id together with the class and the dimensions of the model that actually runs,
+ * see {@link #modelKey(EmbeddingModel)}.
+ * <p>
+ * Recently used embeddings are kept in memory, all of them are written to one file each
+ * under the configured directory so that they survive restarts. Lookups are published as
+ * the {@code cache.gets} metric, tagged with {@code cache=embeddings}.
+ *
+ * @see CachingEmbeddingModel
+ */
+@Component
+public class EmbeddingCache implements MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmbeddingCache.class);
+
+	private static final String CACHE_NAME = "embeddings";
+
+	private final String modelId;
+
+	private final Path directory;
+
+	private final Map<String, float[]> memory;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	public EmbeddingCache(
+			@Value("${petclinic.ai.embedding-cache.model-id:${spring.ai.openai.embedding.options.model:text-embedding-ada-002}}") String modelId,
+			@Value("${petclinic.ai.embedding-cache.directory:${java.io.tmpdir}/petclinic-embeddings}") String directory,
+			@Value("${petclinic.ai.embedding-cache.max-entries:1000}") int maxEntries) {
+		this.modelId = modelId;
+		this.directory = StringUtils.hasText(directory) ? Path.of(directory) : null;
+		this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Return the key identifying the embeddings of the given model. The configured model
+	 * id alone does not tell apart two providers, or a stand-in model, serving the same
+	 * model name.
+	 */
+	public String modelKey(EmbeddingModel model) {
+		return this.modelId + ":" + model.getClass().getName() + ":" + model.dimensions();
+	}
+
+	/**
+	 * Return the embedding of the given text, or {@code null} if it has not been embedded
+	 * yet.
+	 * @param modelKey the embedding model, as returned by
+	 * {@link #modelKey(EmbeddingModel)}
+	 * @param text the embedded text
+	 */
+	public float[] get(String modelKey, String text) {
+		String key = key(modelKey, text);
+		float[] embedding;
+		synchronized (this.memory) {
+			embedding = this.memory.get(key);
+		}
+		if (embedding == null) {
+			embedding = read(key);
+			if (embedding != null) {
+				synchronized (this.memory) {
+					this.memory.put(key, embedding);
+				}
+			}
+		}
+		(embedding != null ? this.hits : this.misses).incrementAndGet();
+		return embedding;
+	}
+
+	public void put(String modelKey, String text, float[] embedding) {
+		String key = key(modelKey, text);
+		synchronized (this.memory) {
+			this.memory.put(key, embedding);
+		}
+		write(key, embedding);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("cache.gets", this.hits, AtomicLong::get)
+			.tags("cache", CACHE_NAME, "result", "hit")
+			.description("Embeddings found in the cache")
+			.register(registry);
+		FunctionCounter.builder("cache.gets", this.misses, AtomicLong::get)
+			.tags("cache", CACHE_NAME, "result", "miss")
+			.description("Embeddings that had to be computed by the embedding model")
+			.register(registry);
+		Gauge.builder("cache.size", this.memory, memory -> {
+			synchronized (memory) {
+				return memory.size();
+			}
+		}).tags("cache", CACHE_NAME).description("Embeddings held in memory").register(registry);
+	}
+
+	/**
+	 * Return the SHA-256 of the given text, as the cache keys are computed, to tell
+	 * whether a text changed without holding on to it.
+	 */
+	public static String digest(String text) {
+		MessageDigest digest = sha256();
+		digest.update(((text != null) ? text : "").getBytes(StandardCharsets.UTF_8));
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static String key(String modelKey, String text) {
+		MessageDigest digest = sha256();
+		digest.update(modelKey.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(text.getBytes(StandardCharsets.UTF_8));
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private Path file(String key) {
+		// Two levels so that no directory ends up with too many files
+		return this.directory.resolve(key.substring(0, 2)).resolve(key + ".bin");
+	}
+
+	private float[] read(String key) {
+		if (this.directory == null) {
+			return null;
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file(key))).order(ByteOrder.LITTLE_ENDIAN);
+			float[] embedding = new float[buffer.remaining() / Float.BYTES];
+			buffer.asFloatBuffer().get(embedding);
+			return embedding;
+		}
+		catch (NoSuchFileException ex) {
+			return null;
+		}
+		catch (IOException ex) {
+			logger.warn("Ignoring unreadable cached embedding {}", key, ex);
+			return null;
+		}
+	}
+
+	private void write(String key, float[] embedding) {
+		if (this.directory == null) {
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.asFloatBuffer().put(embedding);
+		try {
+			Path file = file(key);
+			Files.createDirectories(file.getParent());
+			// Write then move, so that a concurrent reader never sees a partial file
+			Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+			Files.write(temp, buffer.array());
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException ex) {
+			logger.warn("Could not write cached embedding {} to {}", key, this.directory, ex);
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic {@link EmbeddingModel} for the {@code offline} profile, hashing the words
+ * of a text into a fixed number of dimensions. Texts sharing words get similar
+ * embeddings, so that the vector search and the response cache behave plausibly without
+ * an embedding provider.
+ */
+class HashEmbeddingModel implements EmbeddingModel {
+
+	private final int dimensions;
+
+	HashEmbeddingModel(int dimensions) {
+		this.dimensions = dimensions;
+	}
+
+	@Override
+	public EmbeddingResponse call(EmbeddingRequest request) {
+		List<Embedding> embeddings = new ArrayList<>(request.getInstructions().size());
+		for (String text : request.getInstructions()) {
+			embeddings.add(new Embedding(embed(text), embeddings.size()));
+		}
+		return new EmbeddingResponse(embeddings);
+	}
+
+	@Override
+	public float[] embed(String text) {
+		float[] embedding = new float[this.dimensions];
+		for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+			if (!word.isEmpty()) {
+				// String.hashCode is specified, so embeddings are the same on every JVM
+				int hash = word.hashCode() * 0x9E3779B1;
+				hash ^= hash >>> 15;
+				embedding[Math.floorMod(hash, this.dimensions)] += (hash < 0) ? -1 : 1;
+			}
+		}
+		double norm = 0;
+		for (float value : embedding) {
+			norm += value * value;
+		}
+		if (norm > 0) {
+			float scale = (float) (1 / Math.sqrt(norm));
+			for (int i = 0; i < embedding.length; i++) {
+				embedding[i] *= scale;
+			}
+		}
+		return embedding;
+	}
+
+	@Override
+	public float[] embed(Document document) {
+		return embed(document.getFormattedContent(MetadataMode.EMBED));
+	}
+
+	@Override
+	public int dimensions() {
+		return this.dimensions;
+	}
+
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.zip.CRC32C;
+
+/**
+ * Hierarchical Navigable Small World graph over unit-length vectors, scored by dot
+ * product (that is, cosine similarity). Nodes are identified by their insertion order.
+ * Deleted nodes stay in the graph as routing points but are never returned.
+ * <p>
+ * This class is not thread-safe, callers are expected to guard writes.
+ *
+ * @see <a href="https://arxiv.org/abs/1603.09320">Malkov and Yashunin, Efficient and
+ * robust approximate nearest neighbor search using HNSW graphs</a>
+ */
+final class HnswIndex {
+
+	private static final int MAGIC = 0x50434847; // "PCHG"
+
+	private static final int VERSION = 2;
+
+	private static final Comparator<Scored> BY_SCORE = Comparator.comparingDouble(Scored::score);
+
+	private final int m;
+
+	private final int efConstruction;
+
+	private final double levelMultiplier;
+
+	private final Random random;
+
+	private final List<float[]> vectors = new ArrayList<>();
+
+	// links.get(node)[level] holds the neighbours of node on that level
+	private final List<int[][]> links = new ArrayList<>();
+
+	private final BitSet deleted = new BitSet();
+
+	private int entryPoint = -1;
+
+	private int maxLevel = -1;
+
+	HnswIndex(int m, int efConstruction, long seed) {
+		this.m = m;
+		this.efConstruction = efConstruction;
+		this.levelMultiplier = 1 / Math.log(m);
+		this.random = new Random(seed);
+	}
+
+	int size() {
+		return this.vectors.size();
+	}
+
+	int deletedCount() {
+		return this.deleted.cardinality();
+	}
+
+	float[] vector(int node) {
+		return this.vectors.get(node);
+	}
+
+	boolean isDeleted(int node) {
+		return this.deleted.get(node);
+	}
+
+	void markDeleted(int node) {
+		this.deleted.set(node);
+	}
+
+	/**
+	 * Insert a unit-length vector and return its node id.
+	 */
+	int add(float[] vector) {
+		int node = this.vectors.size();
+		int level = (int) (-Math.log(1 - this.random.nextDouble()) * this.levelMultiplier);
+		this.vectors.add(vector);
+		int[][] nodeLinks = new int[level + 1][];
+		Arrays.fill(nodeLinks, new int[0]);
+		this.links.add(nodeLinks);
+
+		if (this.entryPoint < 0) {
+			this.entryPoint = node;
+			this.maxLevel = level;
+			return node;
+		}
+
+		int current = this.entryPoint;
+		for (int l = this.maxLevel; l > level; l--) {
+			current = greedyClosest(vector, current, l);
+		}
+		List<Scored> entryPoints = List.of(new Scored(current, dot(vector, this.vectors.get(current))));
+		for (int l = Math.min(level, this.maxLevel); l >= 0; l--) {
+			List<Scored> candidates = searchLayer(vector, entryPoints, this.efConstruction, l);
+			int[] neighbours = selectNeighbours(candidates, maxLinks(l));
+			nodeLinks[l] = neighbours;
+			for (int neighbour : neighbours) {
+				connect(neighbour, node, l);
+			}
+			entryPoints = candidates;
+		}
+		if (level > this.maxLevel) {
+			this.entryPoint = node;
+			this.maxLevel = level;
+		}
+		return node;
+	}
+
+	/**
+	 * Return up to {@code k} live nodes most similar to the unit-length query, best
+	 * first. Only nodes accepted by the given predicate are returned; the beam is widened
+	 * until enough of them are found or the whole graph has been visited.
+	 */
+	List<Scored> search(float[] query, int k, int ef, IntPredicate accept) {
+		if (this.entryPoint < 0 || k <= 0) {
+			return List.of();
+		}
+		int current = this.entryPoint;
+		for (int l = this.maxLevel; l > 0; l--) {
+			current = greedyClosest(query, current, l);
+		}
+		List<Scored> entryPoints = List.of(new Scored(current, dot(query, this.vectors.get(current))));
+		int beam = Math.max(ef, k);
+		while (true) {
+			List<Scored> found = searchLayer(query, entryPoints, beam, 0);
+			List<Scored> results = new ArrayList<>(k);
+			for (Scored candidate : found) {
+				if (!this.deleted.get(candidate.node()) && accept.test(candidate.node())) {
+					results.add(candidate);
+					if (results.size() == k) {
+						break;
+					}
+				}
+			}
+			if (results.size() == k || beam >= size()) {
+				return results;
+			}
+			beam = Math.min(beam * 2, size());
+		}
+	}
+
+	/**
+	 * Write the graph structure. Vectors are not included, they are restored separately
+	 * and passed to {@link #read(DataInput, List, int, int, long)}, only their checksum
+	 * is written to tell whether the graph was built for them.
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(size());
+		out.writeLong(checksum(this.vectors));
+		out.writeInt(this.entryPoint);
+		out.writeInt(this.maxLevel);
+		for (int node = 0; node < size(); node++) {
+			int[][] nodeLinks = this.links.get(node);
+			out.writeBoolean(this.deleted.get(node));
+			out.writeInt(nodeLinks.length);
+			for (int[] neighbours : nodeLinks) {
+				out.writeInt(neighbours.length);
+				for (int neighbour : neighbours) {
+					out.writeInt(neighbour);
+				}
+			}
+		}
+	}
+
+	static HnswIndex read(DataInput in, List<float[]> vectors, int m, int efConstruction, long seed)
+			throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("Not a supported HNSW graph");
+		}
+		int count = in.readInt();
+		if (count != vectors.size()) {
+			throw new IOException("HNSW graph has " + count + " nodes but " + vectors.size() + " vectors were given");
+		}
+		if (in.readLong() != checksum(vectors)) {
+			throw new IOException("HNSW graph was built for other vectors");
+		}
+		HnswIndex index = new HnswIndex(m, efConstruction, seed);
+		index.entryPoint = in.readInt();
+		index.maxLevel = in.readInt();
+		for (int node = 0; node < count; node++) {
+			if (in.readBoolean()) {
+				index.deleted.set(node);
+			}
+			int[][] nodeLinks = new int[in.readInt()][];
+			for (int l = 0; l < nodeLinks.length; l++) {
+				nodeLinks[l] = new int[in.readInt()];
+				for (int i = 0; i < nodeLinks[l].length; i++) {
+					nodeLinks[l][i] = in.readInt();
+				}
+			}
+			index.vectors.add(vectors.get(node));
+			index.links.add(nodeLinks);
+		}
+		return index;
+	}
+
+	// CRC32C of the vector components, in node order
+	private static long checksum(List<float[]> vectors) {
+		CRC32C crc = new CRC32C();
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		for (float[] vector : vectors) {
+			for (float value : vector) {
+				if (!buffer.hasRemaining()) {
+					crc.update(buffer.flip());
+					buffer.clear();
+				}
+				buffer.putFloat(value);
+			}
+		}
+		crc.update(buffer.flip());
+		return crc.getValue();
+	}
+
+	/**
+	 * Return a copy of this graph without the deleted nodes. Live nodes keep their
+	 * relative order, so node {@code n} of the copy is the {@code n}-th live node here.
+	 */
+	HnswIndex compact(long seed) {
+		int[] remap = new int[size()];
+		int live = 0;
+		for (int node = 0; node < size(); node++) {
+			remap[node] = this.deleted.get(node) ? -1 : live++;
+		}
+		HnswIndex compacted = new HnswIndex(this.m, this.efConstruction, seed);
+		for (int node = 0; node < size(); node++) {
+			if (remap[node] < 0) {
+				continue;
+			}
+			int[][] nodeLinks = this.links.get(node);
+			int[][] remapped = new int[nodeLinks.length][];
+			for (int l = 0; l < nodeLinks.length; l++) {
+				remapped[l] = Arrays.stream(nodeLinks[l]).map(n -> remap[n]).filter(n -> n >= 0).toArray();
+			}
+			compacted.vectors.add(this.vectors.get(node));
+			compacted.links.add(remapped);
+			if (compacted.entryPoint < 0 || nodeLinks.length - 1 > compacted.maxLevel) {
+				compacted.entryPoint = remap[node];
+				compacted.maxLevel = nodeLinks.length - 1;
+			}
+		}
+		return compacted;
+	}
+
+	private int maxLinks(int level) {
+		return (level == 0) ? 2 * this.m : this.m;
+	}
+
+	private int greedyClosest(float[] query, int start, int level) {
+		int current = start;
+		double best = dot(query, this.vectors.get(current));
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			for (int neighbour : neighbours(current, level)) {
+				double score = dot(query, this.vectors.get(neighbour));
+				if (score > best) {
+					best = score;
+					current = neighbour;
+					improved = true;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Beam search on one level, returning up to {@code ef} nodes best first. Deleted
+	 * nodes are traversed like any other.
+	 */
+	private List<Scored> searchLayer(float[] query, List<Scored> entryPoints, int ef, int level) {
+		BitSet visited = new BitSet(size());
+		PriorityQueue<Scored> candidates = new PriorityQueue<>(BY_SCORE.reversed());
+		PriorityQueue<Scored> results = new PriorityQueue<>(BY_SCORE);
+		for (Scored entry : entryPoints) {
+			visited.set(entry.node());
+			candidates.add(entry);
+			results.add(entry);
+		}
+		while (results.size() > ef) {
+			results.poll();
+		}
+		while (!candidates.isEmpty()) {
+			Scored candidate = candidates.poll();
+			if (results.size() >= ef && candidate.score() < results.peek().score()) {
+				break;
+			}
+			for (int neighbour : neighbours(candidate.node(), level)) {
+				if (visited.get(neighbour)) {
+					continue;
+				}
+				visited.set(neighbour);
+				double score = dot(query, this.vectors.get(neighbour));
+				if (results.size() < ef || score > results.peek().score()) {
+					Scored scored = new Scored(neighbour, score);
+					candidates.add(scored);
+					results.add(scored);
+					if (results.size() > ef) {
+						results.poll();
+					}
+				}
+			}
+		}
+		List<Scored> sorted = new ArrayList<>(results);
+		sorted.sort(BY_SCORE.reversed());
+		return sorted;
+	}
+
+	/**
+	 * Neighbour selection heuristic: a candidate is kept only if it is closer to the base
+	 * node than to any neighbour selected so far, which keeps links spread across
+	 * clusters instead of all pointing into the nearest one.
+	 */
+	private int[] selectNeighbours(List<Scored> candidatesBestFirst, int max) {
+		List<Scored> selected = new ArrayList<>(max);
+		for (Scored candidate : candidatesBestFirst) {
+			if (selected.size() >= max) {
+				break;
+			}
+			float[] vector = this.vectors.get(candidate.node());
+			boolean diverse = true;
+			for (Scored other : selected) {
+				if (dot(vector, this.vectors.get(other.node())) > candidate.score()) {
+					diverse = false;
+					break;
+				}
+			}
+			if (diverse) {
+				selected.add(candidate);
+			}
+		}
+		return selected.stream().mapToInt(Scored::node).toArray();
+	}
+
+	private void connect(int node, int neighbour, int level) {
+		int[][] nodeLinks = this.links.get(node);
+		int[] current = nodeLinks[level];
+		int[] extended = Arrays.copyOf(current, current.length + 1);
+		extended[current.length] = neighbour;
+		if (extended.length <= maxLinks(level)) {
+			nodeLinks[level] = extended;
+			return;
+		}
+		float[] vector = this.vectors.get(node);
+		List<Scored> candidates = new ArrayList<>(extended.length);
+		for (int candidate : extended) {
+			candidates.add(new Scored(candidate, dot(vector, this.vectors.get(candidate))));
+		}
+		candidates.sort(BY_SCORE.reversed());
+		nodeLinks[level] = selectNeighbours(candidates, maxLinks(level));
+	}
+
+	private int[] neighbours(int node, int level) {
+		int[][] nodeLinks = this.links.get(node);
+		return (level < nodeLinks.length) ? nodeLinks[level] : new int[0];
+	}
+
+	static double dot(float[] a, float[] b) {
+		return SimilarityKernels.preferred().dot(a, b);
+	}
+
+	/**
+	 * Return a unit-length copy of the given vector.
+	 */
+	static float[] normalize(float[] vector) {
+		double norm = Math.sqrt(dot(vector, vector));
+		float[] normalized = new float[vector.length];
+		if (norm > 0) {
+			for (int i = 0; i < vector.length; i++) {
+				normalized[i] = (float) (vector[i] / norm);
+			}
+		}
+		return normalized;
+	}
+
+	record Scored(int node, double score) {
+	}
+
+}
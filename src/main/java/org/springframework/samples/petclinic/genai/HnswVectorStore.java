@@ -0,0 +1,321 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.observation.conventions.VectorStoreProvider;
+import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStoreContent;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.samples.petclinic.genai.HnswIndex.Scored;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * {@link org.springframework.ai.vectorstore.VectorStore} backed by an in-process
+ * {@link HnswIndex}, so that similarity search visits a logarithmic number of documents
+ * instead of scanning all of them. Documents can be added and deleted at any time.
+ * <p>
+ * The store is persisted as a {@link VectorStoreSnapshot} holding the documents, plus a
+ * {@code .hnsw} file next to it holding the graph. When the graph file is missing the
+ * graph is rebuilt from the snapshot on load.
+ */
+public class HnswVectorStore extends AbstractObservationVectorStore implements PersistentVectorStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(HnswVectorStore.class);
+
+	static final String GRAPH_SUFFIX = ".hnsw";
+
+	private static final long SEED = 42;
+
+	private final int m;
+
+	private final int efConstruction;
+
+	private final int efSearch;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private HnswIndex index;
+
+	// Indexed by node id, null for deleted nodes
+	private List<SimpleVectorStoreContent> contents = new ArrayList<>();
+
+	private Map<String, Integer> nodesById = new HashMap<>();
+
+	protected HnswVectorStore(Builder builder) {
+		super(builder);
+		this.m = builder.m;
+		this.efConstruction = builder.efConstruction;
+		this.efSearch = builder.efSearch;
+		this.index = new HnswIndex(this.m, this.efConstruction, SEED);
+	}
+
+	public static Builder builder(EmbeddingModel embeddingModel) {
+		return new Builder(embeddingModel);
+	}
+
+	@Override
+	public void doAdd(List<Document> documents) {
+		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptions.builder().build(),
+				this.batchingStrategy);
+		this.lock.writeLock().lock();
+		try {
+			for (int i = 0; i < documents.size(); i++) {
+				Document document = documents.get(i);
+				remove(document.getId());
+				int node = this.index.add(HnswIndex.normalize(embeddings.get(i)));
+				this.contents.add(new SimpleVectorStoreContent(document.getId(), document.getText(),
+						document.getMetadata(), embeddings.get(i)));
+				this.nodesById.put(document.getId(), node);
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void doDelete(List<String> idList) {
+		this.lock.writeLock().lock();
+		try {
+			idList.forEach(this::remove);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Document> doSimilaritySearch(SearchRequest request) {
+		float[] query = HnswIndex.normalize(this.embeddingModel.embed(request.getQuery()));
+		Predicate<Map<String, Object>> filter = MetadataFilter.of(request);
+		this.lock.readLock().lock();
+		try {
+			List<Scored> found = this.index.search(query, request.getTopK(), this.efSearch,
+					node -> filter.test(this.contents.get(node).getMetadata()));
+			List<Document> results = new ArrayList<>(found.size());
+			for (Scored scored : found) {
+				if (scored.score() >= request.getSimilarityThreshold()) {
+					results.add(this.contents.get(scored.node()).toDocument(scored.score()));
+				}
+			}
+			return results;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void load(Resource resource) throws IOException {
+		List<SimpleVectorStoreContent> loaded = new ArrayList<>();
+		List<float[]> vectors = new ArrayList<>();
+		try (VectorStoreSnapshot snapshot = VectorStoreSnapshot.open(resource)) {
+			for (int row = 0; row < snapshot.size(); row++) {
+				SimpleVectorStoreContent content = snapshot.content(row);
+				loaded.add(content);
+				vectors.add(HnswIndex.normalize(content.getEmbedding()));
+			}
+		}
+
+		HnswIndex graph = readGraph(resource, vectors);
+		if (graph == null) {
+			graph = new HnswIndex(this.m, this.efConstruction, SEED);
+			for (float[] vector : vectors) {
+				graph.add(vector);
+			}
+			logger.info("Built HNSW graph for {} documents", vectors.size());
+		}
+
+		Map<String, Integer> ids = new HashMap<>();
+		for (int node = 0; node < loaded.size(); node++) {
+			ids.put(loaded.get(node).getId(), node);
+		}
+		this.lock.writeLock().lock();
+		try {
+			this.index = graph;
+			this.contents = loaded;
+			this.nodesById = ids;
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Write the live documents as a snapshot and the graph next to it. Deleted nodes are
+	 * dropped from both. Like the snapshot, the graph is written to a temporary file that
+	 * is then moved in place, so a crash never leaves it half written.
+	 */
+	@Override
+	public void save(File file) throws IOException {
+		List<SimpleVectorStoreContent> live = new ArrayList<>();
+		HnswIndex compacted;
+		this.lock.readLock().lock();
+		try {
+			for (SimpleVectorStoreContent content : this.contents) {
+				if (content != null) {
+					live.add(content);
+				}
+			}
+			compacted = this.index.compact(SEED);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+		VectorStoreSnapshot.write(file.toPath(), live);
+		Path graphFile = Path.of(file.getPath() + GRAPH_SUFFIX);
+		Path tmp = Files.createTempFile(graphFile.toAbsolutePath().getParent(), graphFile.getFileName().toString(),
+				".tmp");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE);
+				DataOutputStream data = new DataOutputStream(
+						new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+			compacted.write(data);
+			data.flush();
+			channel.force(true);
+		}
+		catch (IOException | RuntimeException ex) {
+			Files.deleteIfExists(tmp);
+			throw ex;
+		}
+		Files.move(tmp, graphFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	@Override
+	public Map<String, String> textDigests() {
+		Map<String, String> digests = new HashMap<>();
+		this.lock.readLock().lock();
+		try {
+			for (SimpleVectorStoreContent content : this.contents) {
+				if (content != null) {
+					digests.put(content.getId(), EmbeddingCache.digest(content.getText()));
+				}
+			}
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+		return digests;
+	}
+
+	@Override
+	public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+		return VectorStoreObservationContext.builder(VectorStoreProvider.SIMPLE.value(), operationName)
+			.collectionName("hnsw")
+			.similarityMetric(VectorStoreSimilarityMetric.COSINE.value());
+	}
+
+	private void remove(String id) {
+		Integer node = this.nodesById.remove(id);
+		if (node != null) {
+			this.index.markDeleted(node);
+			this.contents.set(node, null);
+		}
+	}
+
+	private HnswIndex readGraph(Resource resource, List<float[]> vectors) {
+		try {
+			Resource graphResource = resource.createRelative(resource.getFilename() + GRAPH_SUFFIX);
+			if (!graphResource.exists()) {
+				return null;
+			}
+			try (InputStream in = graphResource.getInputStream();
+					DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+				return HnswIndex.read(data, vectors, this.m, this.efConstruction, SEED);
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Ignoring unreadable HNSW graph for {}, rebuilding it", resource, ex);
+			return null;
+		}
+	}
+
+	public static final class Builder extends AbstractVectorStoreBuilder<Builder> {
+
+		private int m = 16;
+
+		private int efConstruction = 200;
+
+		private int efSearch = 64;
+
+		private Builder(EmbeddingModel embeddingModel) {
+			super(embeddingModel);
+		}
+
+		/**
+		 * Maximum number of links per node on the upper levels, twice as many are kept on
+		 * the bottom level.
+		 */
+		public Builder m(int m) {
+			this.m = m;
+			return this;
+		}
+
+		/**
+		 * Size of the candidate list used while inserting, higher values build a better
+		 * graph more slowly.
+		 */
+		public Builder efConstruction(int efConstruction) {
+			this.efConstruction = efConstruction;
+			return this;
+		}
+
+		/**
+		 * Size of the candidate list used while searching, higher values trade latency
+		 * for recall.
+		 */
+		public Builder efSearch(int efSearch) {
+			this.efSearch = efSearch;
+			return this;
+		}
+
+		@Override
+		public HnswVectorStore build() {
+			return new HnswVectorStore(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.ai.tool.method.MethodToolCallback;
+import org.springframework.ai.tool.support.ToolDefinitions;
+import org.springframework.ai.tool.support.ToolUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tool callback reusing the results memoized in the {@link ToolResultMemo} for the
+ * {@link ReadOnlyTool read-only} tools. Other tools are always called, and clear the memo
+ * before and after they run. Every call is recorded by the {@link ChatMetrics}.
+ */
+final class MemoizingToolCallback implements ToolCallback {
+
+	private final ToolCallback delegate;
+
+	private final boolean readOnly;
+
+	private final ToolResultMemo memo;
+
+	private final Runnable writeListener;
+
+	private final ChatMetrics metrics;
+
+	MemoizingToolCallback(ToolCallback delegate, boolean readOnly, ToolResultMemo memo, Runnable writeListener,
+			ChatMetrics metrics) {
+		this.delegate = delegate;
+		this.readOnly = readOnly;
+		this.memo = memo;
+		this.writeListener = writeListener;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Create the callbacks of the {@link Tool} methods of the given object, memoizing the
+	 * ones annotated with {@link ReadOnlyTool}. Results are rendered by the given
+	 * formatter, and every call is recorded by the given metrics.
+	 * @param writeListener called whenever a tool that writes is invoked
+	 */
+	static List<ToolCallback> of(Object tools, ToolResultMemo memo, ToolResultFormatter formatter,
+			Runnable writeListener, ChatMetrics metrics) {
+		List<ToolCallback> callbacks = new ArrayList<>();
+		ReflectionUtils.doWithMethods(tools.getClass(), method -> {
+			ToolCallback callback = MethodToolCallback.builder()
+				.toolDefinition(ToolDefinitions.from(method))
+				.toolMetadata(ToolMetadata.from(method))
+				.toolMethod(method)
+				.toolObject(tools)
+				.toolCallResultConverter(formatter.converter(ToolUtils.getToolName(method)))
+				.build();
+			callbacks.add(new MemoizingToolCallback(callback, method.isAnnotationPresent(ReadOnlyTool.class), memo,
+					writeListener, metrics));
+		}, method -> method.isAnnotationPresent(Tool.class));
+		return callbacks;
+	}
+
+	/**
+	 * Whether the tool is {@link ReadOnlyTool read-only}.
+	 */
+	boolean isReadOnly() {
+		return this.readOnly;
+	}
+
+	@Override
+	public ToolDefinition getToolDefinition() {
+		return this.delegate.getToolDefinition();
+	}
+
+	@Override
+	public ToolMetadata getToolMetadata() {
+		return this.delegate.getToolMetadata();
+	}
+
+	@Override
+	public String call(String toolInput) {
+		return call(toolInput, null);
+	}
+
+	@Override
+	public String call(String toolInput, ToolContext toolContext) {
+		String name = getToolDefinition().name();
+		if (!this.readOnly) {
+			this.memo.invalidate();
+			this.writeListener.run();
+			try {
+				return this.metrics.recordToolCall(name, false, () -> this.delegate.call(toolInput, toolContext));
+			}
+			finally {
+				this.memo.invalidate();
+			}
+		}
+		Object turnId = (toolContext != null) ? toolContext.getContext().get(ToolResultMemo.TURN_ID) : null;
+		String key = name + '\0' + toolInput;
+		String memoized = this.memo.get(key, turnId);
+		if (memoized != null) {
+			return this.metrics.recordToolCall(name, true, () -> memoized);
+		}
+		return this.metrics.recordToolCall(name, false, () -> {
+			long generation = this.memo.generation();
+			String result = this.delegate.call(toolInput, toolContext);
+			this.memo.put(key, turnId, result, generation);
+			return result;
+		});
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.converter.SimpleVectorStoreFilterExpressionConverter;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates the filter expression of a {@link SearchRequest} against document metadata,
+ * the same way {@link org.springframework.ai.vectorstore.SimpleVectorStore} does.
+ */
+final class MetadataFilter {
+
+	private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+
+	private MetadataFilter() {
+	}
+
+	static Predicate<Map<String, Object>> of(SearchRequest request) {
+		if (!request.hasFilterExpression()) {
+			return metadata -> true;
+		}
+		Expression expression = PARSER.parseExpression(
+				new SimpleVectorStoreFilterExpressionConverter().convertExpression(request.getFilterExpression()));
+		return metadata -> {
+			StandardEvaluationContext context = new StandardEvaluationContext();
+			context.setVariable("metadata", metadata);
+			return Boolean.TRUE.equals(expression.getValue(context, Boolean.class));
+		};
+	}
+
+}
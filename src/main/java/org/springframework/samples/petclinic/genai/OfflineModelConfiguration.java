@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces the OpenAI models with local stand-ins when the {@code offline} profile is
+ * active, so that the chat can be exercised and load tested without an API key or network
+ * access, see {@link ScriptedChatModel} and {@link HashEmbeddingModel}. The
+ * {@code ChatLoadHarness} of the test sources drives such an application.
+ */
+@Configuration
+@Profile("offline")
+class OfflineModelConfiguration {
+
+	/**
+	 * Response header of {@code /chat} holding the microseconds spent waiting for the
+	 * model.
+	 */
+	static final String PROVIDER_TIME_HEADER = "X-Provider-Time";
+
+	@Bean
+	ScriptedChatModel scriptedChatModel(ToolCallingManager toolCallingManager,
+			@Value("${petclinic.ai.offline.latency.median:500ms}") Duration medianLatency,
+			@Value("${petclinic.ai.offline.latency.p99:2s}") Duration p99Latency) {
+		return new ScriptedChatModel(toolCallingManager, medianLatency, p99Latency);
+	}
+
+	@Bean
+	HashEmbeddingModel hashEmbeddingModel(@Value("${petclinic.ai.offline.embedding-dimensions:384}") int dimensions) {
+		return new HashEmbeddingModel(dimensions);
+	}
+
+	@Bean
+	ProviderTimeFilter providerTimeFilter() {
+		return new ProviderTimeFilter();
+	}
+
+	/**
+	 * Reports the time {@code /chat} spent waiting for the model in the
+	 * {@link #PROVIDER_TIME_HEADER} header. The response is buffered, so that the header
+	 * can be added once the answer is known.
+	 */
+	static class ProviderTimeFilter extends OncePerRequestFilter {
+
+		@Override
+		protected boolean shouldNotFilter(HttpServletRequest request) {
+			return !"/chat".equals(request.getRequestURI());
+		}
+
+		@Override
+		protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+				throws ServletException, IOException {
+			ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+			chain.doFilter(request, wrapper);
+			Object providerTime = request.getAttribute(ScriptedChatModel.PROVIDER_TIME_ATTRIBUTE);
+			wrapper.setHeader(PROVIDER_TIME_HEADER,
+					String.valueOf((providerTime != null) ? TimeUnit.NANOSECONDS.toMicros((Long) providerTime) : 0));
+			wrapper.copyBodyToResponse();
+		}
+
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage.ToolResponse;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ToolCallingManager} running the tool calls that the model asks for in the same
+ * turn concurrently, when they are all {@link ReadOnlyTool read-only}. Each call is
+ * executed by the delegate on its own, and the responses are returned in the order of the
+ * calls, as the delegate would. A turn calling any tool that writes is executed by the
+ * delegate, one call after the other.
+ * <p>
+ * At most {@code maxParallel} calls of a turn run at once: as many workers are submitted
+ * to the executor, each taking the next call of the turn until none is left. The limit is
+ * per turn, the executor itself is not bounded, so that the calls of one chat never wait
+ * for those of another one.
+ */
+class ParallelToolCallingManager implements ToolCallingManager {
+
+	private final ToolCallingManager delegate;
+
+	private final AsyncTaskExecutor executor;
+
+	private final int maxParallel;
+
+	ParallelToolCallingManager(ToolCallingManager delegate, AsyncTaskExecutor executor, int maxParallel) {
+		this.delegate = delegate;
+		this.executor = executor;
+		this.maxParallel = maxParallel;
+	}
+
+	@Override
+	public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+		return this.delegate.resolveToolDefinitions(chatOptions);
+	}
+
+	@Override
+	public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+		AssistantMessage assistantMessage = chatResponse.getResults()
+			.stream()
+			.map(Generation::getOutput)
+			.filter(AssistantMessage::hasToolCalls)
+			.findFirst()
+			.orElse(null);
+		if (assistantMessage == null || assistantMessage.getToolCalls().size() < 2
+				|| !readOnly(prompt, assistantMessage.getToolCalls())) {
+			return this.delegate.executeToolCalls(prompt, chatResponse);
+		}
+		List<ChatResponse> singles = new ArrayList<>();
+		for (ToolCall toolCall : assistantMessage.getToolCalls()) {
+			singles.add(new ChatResponse(List.of(new Generation(AssistantMessage.builder()
+				.content(assistantMessage.getText())
+				.properties(assistantMessage.getMetadata())
+				.toolCalls(List.of(toolCall))
+				.build()))));
+		}
+		ToolExecutionResult[] results = new ToolExecutionResult[singles.size()];
+		AtomicInteger next = new AtomicInteger();
+		List<Future<?>> workers = new ArrayList<>();
+		for (int worker = 0; worker < Math.min(this.maxParallel, singles.size()); worker++) {
+			workers.add(this.executor.submit(() -> {
+				for (int call = next.getAndIncrement(); call < singles.size(); call = next.getAndIncrement()) {
+					results[call] = this.delegate.executeToolCalls(prompt, singles.get(call));
+				}
+			}));
+		}
+		// Completing the workers publishes their results to this thread
+		workers.forEach(worker -> await(worker, workers));
+		List<ToolResponse> responses = new ArrayList<>();
+		List<Message> history = List.of();
+		boolean returnDirect = true;
+		for (ToolExecutionResult result : results) {
+			history = result.conversationHistory();
+			responses.addAll(((ToolResponseMessage) history.get(history.size() - 1)).getResponses());
+			returnDirect = returnDirect && result.returnDirect();
+		}
+		// The messages before the tool calls, the calls, then all their responses
+		List<Message> conversationHistory = new ArrayList<>(history.subList(0, history.size() - 2));
+		conversationHistory.add(assistantMessage);
+		conversationHistory.add(ToolResponseMessage.builder().responses(responses).build());
+		return ToolExecutionResult.builder()
+			.conversationHistory(conversationHistory)
+			.returnDirect(returnDirect)
+			.build();
+	}
+
+	private static boolean readOnly(Prompt prompt, List<ToolCall> toolCalls) {
+		if (!(prompt.getOptions() instanceof ToolCallingChatOptions options)) {
+			return false;
+		}
+		Set<String> readOnlyTools = new HashSet<>();
+		for (ToolCallback callback : options.getToolCallbacks()) {
+			if (callback instanceof MemoizingToolCallback memoizing && memoizing.isReadOnly()) {
+				readOnlyTools.add(callback.getToolDefinition().name());
+			}
+		}
+		return toolCalls.stream().allMatch(toolCall -> readOnlyTools.contains(toolCall.name()));
+	}
+
+	// Failures of the tools are rethrown as the delegate would, the other workers are
+	// cancelled
+	private static void await(Future<?> worker, List<Future<?>> workers) {
+		try {
+			worker.get();
+		}
+		catch (ExecutionException ex) {
+			workers.forEach(other -> other.cancel(true));
+			throw (ex.getCause() instanceof RuntimeException cause) ? cause : new IllegalStateException(ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			workers.forEach(other -> other.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the tool calls", ex);
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A {@link VectorStore} whose contents can be saved to and restored from a
+ * {@link VectorStoreSnapshot}, so that the vets only need to be embedded once.
+ */
+public interface PersistentVectorStore extends VectorStore {
+
+	/**
+	 * Replace the contents of this store with the snapshot held by the given resource.
+	 */
+	void load(Resource resource) throws IOException;
+
+	/**
+	 * Write the contents of this store to the given file.
+	 */
+	void save(File file) throws IOException;
+
+	/**
+	 * Return the {@link EmbeddingCache#digest(String) digest} of the text of every
+	 * document of this store, by document id, to tell which documents changed since they
+	 * were stored.
+	 */
+	Map<String, String> textDigests();
+
+}
@@ -16,10 +16,25 @@
 
 package org.springframework.samples.petclinic.genai;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.servlet.http.HttpSession;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.genai.ChatBulkhead.Admission;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * This REST controller is being invoked by the in order to interact with the LLM
@@ -29,20 +44,143 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class PetclinicChatClient {
 
+	private static final Logger logger = LoggerFactory.getLogger(PetclinicChatClient.class);
+
+	/**
+	 * Header naming one of the conversations of the HTTP session, the session alone
+	 * identifies the conversation when absent.
+	 */
+	public static final String CONVERSATION_ID_HEADER = "X-Conversation-Id";
+
+	private static final int MAX_CONVERSATION_ID_LENGTH = 64;
+
+	private static final String UNAVAILABLE = "The assistant is still starting up, please try again in a few seconds.";
+
+	private static final String FAILED = "The assistant is unavailable at the moment, please try again later.";
+
+	private static final String BUSY = "The assistant is busy, please try again in a few seconds.";
+
 	// ChatModel is the primary interfaces for interacting with an LLM
 	// it is a request/response interface that implements the ModelModel
 	// interface. Make suer to visit the source code of the ChatModel and
 	// checkout the interfaces in the core spring ai package.
 	private final ChatClient chatClient;
 
-	public PetclinicChatClient(ChatClient chatClient) {
+	private final VectorStoreController vectorStoreController;
+
+	// Keeps slow LLM calls from holding every request thread
+	private final ChatBulkhead bulkhead;
+
+	public PetclinicChatClient(ChatClient chatClient, VectorStoreController vectorStoreController,
+			ChatBulkhead bulkhead) {
 		this.chatClient = chatClient;
+		this.vectorStoreController = vectorStoreController;
+		this.bulkhead = bulkhead;
 	}
 
 	@PostMapping("/chat")
-	public String exchange(@RequestBody String query) {
-		// All chatbot messages go through this endpoint and are passed to the LLM
-		return this.chatClient.prompt().user(u -> u.text(query)).call().content();
+	public ResponseEntity<String> exchange(@RequestBody String query,
+			@RequestHeader(name = CONVERSATION_ID_HEADER, required = false) String conversationId,
+			HttpSession session) {
+		// The vets are looked up in the vector store, which is loaded in the background
+		State state = this.vectorStoreController.getState();
+		if (state != State.READY) {
+			return unavailable(state).body((state == State.FAILED) ? FAILED : UNAVAILABLE);
+		}
+		Admission admission = this.bulkhead.acquire();
+		if (admission != Admission.ADMITTED) {
+			return rejected(admission).body(BUSY);
+		}
+		try {
+			// All chatbot messages go through this endpoint and are passed to the LLM
+			return ResponseEntity.ok(this.chatClient.prompt()
+				.user(u -> u.text(query))
+				.advisors(a -> a.param(ChatMemory.CONVERSATION_ID, conversationId(conversationId, session)))
+				.toolContext(turn())
+				.call()
+				.content());
+		}
+		finally {
+			this.bulkhead.release();
+		}
+	}
+
+	/**
+	 * Stream the answer as server-sent events, one JSON encoded {@link ChatChunk} per
+	 * event, as the LLM produces it. Tool calls are resolved by the chat client within
+	 * the stream, the text that follows them is streamed as well.
+	 * <p>
+	 * The stream takes its {@link ChatBulkhead} permit when it is subscribed and returns
+	 * it when it completes, fails or is cancelled, so that a stream that is never
+	 * subscribed holds none. The status is sent by then, a stream turned away by the
+	 * bulkhead only carries the busy message.
+	 */
+	@PostMapping(path = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<Flux<ChatChunk>> stream(@RequestBody String query,
+			@RequestHeader(name = CONVERSATION_ID_HEADER, required = false) String conversationId,
+			HttpSession session) {
+		State state = this.vectorStoreController.getState();
+		if (state != State.READY) {
+			return unavailable(state).body(Flux.just(new ChatChunk((state == State.FAILED) ? FAILED : UNAVAILABLE)));
+		}
+		String id = conversationId(conversationId, session);
+		Flux<ChatChunk> chunks = Flux.using(this.bulkhead::acquire,
+				admission -> (admission == Admission.ADMITTED) ? chat(query, id) : Flux.just(new ChatChunk(BUSY)),
+				admission -> {
+					if (admission == Admission.ADMITTED) {
+						this.bulkhead.release();
+					}
+				});
+		return ResponseEntity.ok(chunks);
+	}
+
+	private Flux<ChatChunk> chat(String query, String conversationId) {
+		return this.chatClient.prompt()
+			.user(u -> u.text(query))
+			.advisors(a -> a.param(ChatMemory.CONVERSATION_ID, conversationId))
+			.toolContext(turn())
+			.stream()
+			.content()
+			.map(ChatChunk::new)
+			.onErrorResume(ex -> {
+				// The status is already sent, the error is reported in the stream
+				logger.error("Chat stream failed", ex);
+				return Flux.just(new ChatChunk("\n\nSorry, something went wrong, please try again."));
+			});
+	}
+
+	// Each browser session has its own conversations, the header only tells apart those
+	// of the same session so that it cannot be used to read another user's history
+	private static String conversationId(String header, HttpSession session) {
+		if (header != null && !header.isBlank() && header.length() <= MAX_CONVERSATION_ID_LENGTH) {
+			return session.getId() + ":" + header.strip();
+		}
+		return session.getId();
+	}
+
+	// Identifies the turn to the tools, see ToolResultMemo
+	private static Map<String, Object> turn() {
+		return Map.of(ToolResultMemo.TURN_ID, UUID.randomUUID().toString());
+	}
+
+	// A failed load is retried in the background, with a growing delay
+	private static ResponseEntity.BodyBuilder unavailable(State state) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+			.header(HttpHeaders.RETRY_AFTER, (state == State.FAILED) ? "60" : "5");
+	}
+
+	// Too many requests when the queue is full, unavailable when the wait timed out
+	private ResponseEntity.BodyBuilder rejected(Admission admission) {
+		HttpStatus status = (admission == Admission.QUEUE_FULL) ? HttpStatus.TOO_MANY_REQUESTS
+				: HttpStatus.SERVICE_UNAVAILABLE;
+		return ResponseEntity.status(status)
+			.header(HttpHeaders.RETRY_AFTER, String.valueOf(this.bulkhead.retryAfter().toSeconds()));
+	}
+
+	/**
+	 * Piece of an answer streamed by {@link #stream(String, String, HttpSession)}.
+	 */
+	public record ChatChunk(String text) {
 	}
 
 }
@@ -20,6 +20,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.samples.petclinic.genai.AIDataProvider.OwnerPage;
+import org.springframework.samples.petclinic.genai.AIDataProvider.OwnerSearch;
+import org.springframework.samples.petclinic.genai.ClinicBatchWriter.ItemResult;
 import org.springframework.samples.petclinic.owner.Owner;
 import org.springframework.samples.petclinic.owner.Pet;
 import org.springframework.samples.petclinic.vet.Vet;
@@ -30,8 +34,9 @@ import java.util.List;
 /**
  * This class defines the tools (also known as function) that the LLM provider will invoke
  * when it requires more Information on a given topic. The currently available tools
- * enable the LLM to get the list of owners and their pets, get information about the
- * veterinarians, and add a pet to an owner.
+ * enable the LLM to find owners and their pets, get information about the veterinarians,
+ * and add pets and owners, one at a time or in batches. Tools that only read are
+ * annotated with {@link ReadOnlyTool}.
  *
  * @author Oded Shopen
  * @author Antoine Rey
@@ -43,16 +48,25 @@ class PetclinicTools {
 
 	private final AIDataProvider petclinicAiProvider;
 
-	PetclinicTools(AIDataProvider petclinicAiProvider) {
+	private final ClinicBatchWriter batchWriter;
+
+	PetclinicTools(AIDataProvider petclinicAiProvider, ClinicBatchWriter batchWriter) {
 		this.petclinicAiProvider = petclinicAiProvider;
+		this.batchWriter = batchWriter;
 	}
 
-	@Tool(description = "List the owners that the pet clinic has")
-	public List<Owner> listOwners() {
-		return petclinicAiProvider.getAllOwners();
+	@Tool(description = """
+			Find the owners that the pet clinic has, with their pets, matching all the given criteria. \
+			Leave the criteria empty to list every owner. Owners are returned one page at a time: \
+			when a nextCursor is returned, call again with the same criteria and this cursor to get the next page""")
+	@ReadOnlyTool
+	public OwnerPage findOwners(@ToolParam(required = false) OwnerSearch search,
+			@ToolParam(required = false, description = "The nextCursor of the previous page") Integer cursor) {
+		return petclinicAiProvider.findOwners(search, cursor);
 	}
 
 	@Tool(description = "List the veterinarians that the pet clinic has")
+	@ReadOnlyTool
 	public List<String> listVets(Vet vet) {
 		try {
 			return petclinicAiProvider.getVets(vet);
@@ -84,4 +98,27 @@ class PetclinicTools {
 		return petclinicAiProvider.addOwnerToPetclinic(owner);
 	}
 
+	@Tool(description = ("""
+			Add several pets, such as a litter, to an owner identified by the ownerId, in one call \
+			rather than one call per pet. Each pet has a name, a birth date and a petTypeId among: \
+			1 - cat \
+			2 - dog \
+			3 - lizard \
+			4 - snake \
+			5 - bird \
+			6 - hamster. \
+			Returns the id of each added pet, or the errors of the pets that were not added"""))
+	public List<ItemResult> addPetsToOwner(List<Pet> pets, Integer ownerId) {
+		return batchWriter.addPetsToOwner(ownerId, pets);
+	}
+
+	@Tool(description = ("""
+			Add several pet owners to the pet clinic, with their pets if any, in one call rather than \
+			one call per owner. Each Owner must include a first name and a last name as two separate words, \
+			plus an address, a city and a 10-digit phone number. \
+			Returns the id of each added owner, or the errors of the owners that were not added"""))
+	public List<ItemResult> addOwnersToPetclinic(List<Owner> owners) {
+		return batchWriter.addOwnersToPetclinic(owners);
+	}
+
 }
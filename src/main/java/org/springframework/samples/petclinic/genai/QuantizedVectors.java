@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.samples.petclinic.genai.SnapshotVectorStore.Quantization;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Compact on-heap copy of the embeddings of a {@link VectorStoreSnapshot}, used for a
+ * fast first pass before the best candidates are rescored against the full vectors.
+ * <ul>
+ * <li>{@link Quantization#INT8} keeps one signed byte per dimension and a scale per row,
+ * a quarter of the size of the floats. The query stays in full precision.</li>
+ * <li>{@link Quantization#BINARY} keeps the sign of each dimension as one bit, a 32nd of
+ * the size, and ranks rows by Hamming distance to the signs of the query.</li>
+ * </ul>
+ */
+final class QuantizedVectors {
+
+	private final VectorStoreSnapshot snapshot;
+
+	private final Quantization quantization;
+
+	private final byte[][] codes;
+
+	// Converts the int8 dot product of a row back to a cosine similarity
+	private final float[] factors;
+
+	private final long[][] bits;
+
+	private QuantizedVectors(VectorStoreSnapshot snapshot, Quantization quantization) {
+		this.snapshot = snapshot;
+		this.quantization = quantization;
+		int size = snapshot.size();
+		this.codes = (quantization == Quantization.INT8) ? new byte[size][] : null;
+		this.factors = (quantization == Quantization.INT8) ? new float[size] : null;
+		this.bits = (quantization == Quantization.BINARY) ? new long[size][] : null;
+		for (int row = 0; row < size; row++) {
+			float[] embedding = snapshot.embedding(row);
+			if (quantization == Quantization.INT8) {
+				float scale = maxAbs(embedding) / 127;
+				byte[] rowCodes = new byte[embedding.length];
+				for (int i = 0; i < embedding.length; i++) {
+					rowCodes[i] = (scale == 0) ? 0 : (byte) Math.round(embedding[i] / scale);
+				}
+				this.codes[row] = rowCodes;
+				float norm = snapshot.norm(row);
+				this.factors[row] = (norm == 0) ? 0 : scale / norm;
+			}
+			else {
+				this.bits[row] = signs(embedding);
+			}
+		}
+	}
+
+	/**
+	 * Quantize the embeddings of the given snapshot, or return {@code null} for
+	 * {@link Quantization#NONE}.
+	 */
+	static QuantizedVectors of(VectorStoreSnapshot snapshot, Quantization quantization) {
+		return (quantization == Quantization.NONE) ? null : new QuantizedVectors(snapshot, quantization);
+	}
+
+	VectorStoreSnapshot snapshot() {
+		return this.snapshot;
+	}
+
+	/**
+	 * Approximate heap footprint of the quantized vectors, in bytes.
+	 */
+	long sizeInBytes() {
+		long rows = this.snapshot.size();
+		return (this.quantization == Quantization.INT8) ? rows * (this.snapshot.dimensions() + Float.BYTES)
+				: rows * ((this.snapshot.dimensions() + 63) / 64) * Long.BYTES;
+	}
+
+	/**
+	 * Return the rows accepted by the given predicate that rank best on the quantized
+	 * vectors, best first. The ranking is approximate and is meant to be rescored.
+	 */
+	int[] candidates(float[] query, int count, IntPredicate accept) {
+		PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(Candidate::score));
+		long[] querySigns = (this.quantization == Quantization.BINARY) ? signs(query) : null;
+		for (int row = 0; row < this.snapshot.size(); row++) {
+			double score = (querySigns != null) ? -hamming(querySigns, this.bits[row])
+					: dot(query, this.codes[row]) * this.factors[row];
+			if (best.size() < count || best.peek().score() < score) {
+				// The predicate may read metadata, so it is only checked for contenders
+				if (accept.test(row)) {
+					if (best.size() == count) {
+						best.poll();
+					}
+					best.add(new Candidate(row, score));
+				}
+			}
+		}
+		int[] rows = new int[best.size()];
+		for (int i = rows.length - 1; i >= 0; i--) {
+			rows[i] = best.poll().row();
+		}
+		return rows;
+	}
+
+	private static double dot(float[] query, byte[] codes) {
+		double sum = 0;
+		for (int i = 0; i < codes.length; i++) {
+			sum += query[i] * codes[i];
+		}
+		return sum;
+	}
+
+	private static int hamming(long[] a, long[] b) {
+		int distance = 0;
+		for (int i = 0; i < a.length; i++) {
+			distance += Long.bitCount(a[i] ^ b[i]);
+		}
+		return distance;
+	}
+
+	private static long[] signs(float[] vector) {
+		long[] words = new long[(vector.length + 63) / 64];
+		for (int i = 0; i < vector.length; i++) {
+			if (vector[i] > 0) {
+				words[i >>> 6] |= 1L << i;
+			}
+		}
+		return words;
+	}
+
+	private static float maxAbs(float[] vector) {
+		float max = 0;
+		for (float value : vector) {
+			max = Math.max(max, Math.abs(value));
+		}
+		return max;
+	}
+
+	private record Candidate(int row, double score) {
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+/**
+ * Plain Java {@link SimilarityKernel}, used when the Vector API is not available. The
+ * loops are left to the JIT compiler, which may still auto-vectorize some of them.
+ */
+final class ScalarSimilarityKernel implements SimilarityKernel {
+
+	@Override
+	public float dot(float[] a, float[] b) {
+		float sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+	@Override
+	public float cosine(float[] a, float[] b) {
+		float dot = 0;
+		float normA = 0;
+		float normB = 0;
+		for (int i = 0; i < a.length; i++) {
+			dot += a[i] * b[i];
+			normA += a[i] * a[i];
+			normB += b[i] * b[i];
+		}
+		return (normA == 0 || normB == 0) ? 0 : (float) (dot / Math.sqrt((double) normA * normB));
+	}
+
+	@Override
+	public float squaredL2(float[] a, float[] b) {
+		float sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			float difference = a[i] - b[i];
+			sum += difference * difference;
+		}
+		return sum;
+	}
+
+	@Override
+	public String toString() {
+		return "scalar";
+	}
+
+}
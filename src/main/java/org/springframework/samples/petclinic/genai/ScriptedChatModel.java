@@ -0,0 +1,228 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage.ToolResponse;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.DefaultToolExecutionEligibilityPredicate;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionEligibilityPredicate;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline stand-in for the LLM of the {@code offline} profile, answering from a script:
+ * <ul>
+ * <li>a question about vets calls {@code listVets}, with the specialty it names, and a
+ * question about owners or pets calls {@code findOwners}, both tools being called in the
+ * same turn when both are asked about;</li>
+ * <li>the answer following tool calls quotes their results;</li>
+ * <li>any other question gets a canned answer.</li>
+ * </ul>
+ * Every round-trip waits for a latency drawn from a log-normal distribution with the
+ * configured median and 99th percentile. The time spent waiting is added to the
+ * {@link #PROVIDER_TIME_ATTRIBUTE} attribute of the current request, so that it can be
+ * told apart from the time spent in the application.
+ * <p>
+ * Tool calls are executed by the {@link ToolCallingManager}, as the OpenAI chat model
+ * does.
+ */
+class ScriptedChatModel implements ChatModel {
+
+	/**
+	 * Request attribute holding the nanoseconds spent waiting for the model.
+	 */
+	static final String PROVIDER_TIME_ATTRIBUTE = ScriptedChatModel.class.getName() + ".providerTime";
+
+	private static final List<String> SPECIALTIES = List.of("radiology", "surgery", "dentistry", "cardiology",
+			"anesthesia");
+
+	private static final int MAX_QUOTED_LENGTH = 1000;
+
+	// z-score of the 99th percentile of a normal distribution
+	private static final double Z_99 = 2.326;
+
+	private final ToolCallingManager toolCallingManager;
+
+	private final ToolExecutionEligibilityPredicate toolExecutionEligibilityPredicate = new DefaultToolExecutionEligibilityPredicate();
+
+	private final double medianNanos;
+
+	private final double sigma;
+
+	private final AtomicLong toolCallIds = new AtomicLong();
+
+	ScriptedChatModel(ToolCallingManager toolCallingManager, Duration medianLatency, Duration p99Latency) {
+		this.toolCallingManager = toolCallingManager;
+		this.medianNanos = medianLatency.toNanos();
+		this.sigma = (p99Latency.compareTo(medianLatency) > 0 && !medianLatency.isZero())
+				? Math.log((double) p99Latency.toNanos() / medianLatency.toNanos()) / Z_99 : 0;
+	}
+
+	@Override
+	public ChatResponse call(Prompt prompt) {
+		ChatResponse response = respond(prompt);
+		if (prompt.getOptions() != null
+				&& this.toolExecutionEligibilityPredicate.isToolExecutionRequired(prompt.getOptions(), response)) {
+			ToolExecutionResult result = this.toolCallingManager.executeToolCalls(prompt, response);
+			if (result.returnDirect()) {
+				return ChatResponse.builder()
+					.from(response)
+					.generations(ToolExecutionResult.buildGenerations(result))
+					.build();
+			}
+			return call(new Prompt(result.conversationHistory(), prompt.getOptions()));
+		}
+		return response;
+	}
+
+	/**
+	 * Stream the answer word by word, once it is complete.
+	 */
+	@Override
+	public Flux<ChatResponse> stream(Prompt prompt) {
+		return Mono.fromCallable(() -> call(prompt))
+			.subscribeOn(Schedulers.boundedElastic())
+			.flatMapMany(response -> Flux.fromArray(response.getResult().getOutput().getText().split("(?<=\\s)")))
+			.map(chunk -> new ChatResponse(List.of(new Generation(new AssistantMessage(chunk)))));
+	}
+
+	@Override
+	public ChatOptions getDefaultOptions() {
+		return ToolCallingChatOptions.builder().build();
+	}
+
+	private ChatResponse respond(Prompt prompt) {
+		waitForLatency();
+		List<Message> messages = prompt.getInstructions();
+		AssistantMessage answer;
+		if (!messages.isEmpty() && messages.get(messages.size() - 1) instanceof ToolResponseMessage toolResponses) {
+			answer = new AssistantMessage(quote(toolResponses));
+		}
+		else {
+			UserMessage question = prompt.getUserMessage();
+			String text = (question != null) ? question.getText() : "";
+			List<ToolCall> toolCalls = toolCalls(text, toolNames(prompt.getOptions()));
+			answer = toolCalls.isEmpty() ? new AssistantMessage("This is an offline answer to: " + text)
+					: AssistantMessage.builder().content("").toolCalls(toolCalls).build();
+		}
+		return new ChatResponse(List.of(new Generation(answer)));
+	}
+
+	private List<ToolCall> toolCalls(String question, Set<String> toolNames) {
+		String lowerCase = question.toLowerCase(Locale.ROOT);
+		List<ToolCall> toolCalls = new ArrayList<>();
+		if (toolNames.contains("listVets") && (lowerCase.contains("vet") || specialty(lowerCase) != null)) {
+			String specialty = specialty(lowerCase);
+			String arguments = (specialty != null) ? "{\"vet\":{\"specialties\":[{\"name\":\"" + specialty + "\"}]}}"
+					: "{}";
+			toolCalls.add(toolCall("listVets", arguments));
+		}
+		if (toolNames.contains("findOwners") && (lowerCase.contains("owner") || lowerCase.contains("pet"))) {
+			toolCalls.add(toolCall("findOwners", "{}"));
+		}
+		return toolCalls;
+	}
+
+	/**
+	 * Return the word of the question close to a specialty, unchanged so that misspelled
+	 * or derived words such as "radiologist" are looked up by similarity.
+	 */
+	private static String specialty(String question) {
+		for (String word : question.split("[^\\p{L}]+")) {
+			for (String specialty : SPECIALTIES) {
+				if (word.length() >= 5 && word.startsWith(specialty.substring(0, 5))) {
+					return word;
+				}
+			}
+		}
+		return null;
+	}
+
+	private ToolCall toolCall(String name, String arguments) {
+		return new ToolCall("call_" + this.toolCallIds.incrementAndGet(), "function", name, arguments);
+	}
+
+	private static Set<String> toolNames(ChatOptions options) {
+		Set<String> names = new HashSet<>();
+		if (options instanceof ToolCallingChatOptions toolCallingOptions) {
+			names.addAll(toolCallingOptions.getToolNames());
+			for (ToolCallback callback : toolCallingOptions.getToolCallbacks()) {
+				names.add(callback.getToolDefinition().name());
+			}
+		}
+		return names;
+	}
+
+	private static String quote(ToolResponseMessage toolResponses) {
+		StringBuilder answer = new StringBuilder("Here is what I found.");
+		for (ToolResponse response : toolResponses.getResponses()) {
+			String data = response.responseData();
+			answer.append("\n\nFrom ")
+				.append(response.name())
+				.append(":\n\n")
+				.append((data.length() > MAX_QUOTED_LENGTH) ? data.substring(0, MAX_QUOTED_LENGTH) + "..." : data);
+		}
+		return answer.toString();
+	}
+
+	private void waitForLatency() {
+		if (this.medianNanos <= 0) {
+			return;
+		}
+		long latency = (long) (this.medianNanos * Math.exp(this.sigma * ThreadLocalRandom.current().nextGaussian()));
+		long start = System.nanoTime();
+		try {
+			TimeUnit.NANOSECONDS.sleep(latency);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		RequestAttributes request = RequestContextHolder.getRequestAttributes();
+		if (request != null) {
+			Long spent = (Long) request.getAttribute(PROVIDER_TIME_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+			request.setAttribute(PROVIDER_TIME_ATTRIBUTE, ((spent != null) ? spent : 0) + System.nanoTime() - start,
+					RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientMessageAggregator;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Answers a question from the answer given earlier to a similar question, when the cosine
+ * similarity of their embeddings reaches the configured threshold, without a round-trip
+ * to the LLM. Questions are normalized before they are embedded.
+ * <p>
+ * Any change to the clinic data clears the cache, see {@link ClinicDataChangeListener},
+ * and so do the tools that write. An answer is only cached when no such change happened
+ * while it was produced, which excludes the turns that called a write tool. The advisor
+ * runs after the chat memory advisor, so that cached answers are remembered as well, and
+ * only first turns are cached: a follow-up question depends on its conversation.
+ */
+@Component
+class SemanticResponseCache implements CallAdvisor, StreamAdvisor {
+
+	private static final Logger logger = LoggerFactory.getLogger(SemanticResponseCache.class);
+
+	private final EmbeddingModel embeddingModel;
+
+	private final boolean enabled;
+
+	private final double similarityThreshold;
+
+	private final int maxEntries;
+
+	// Most recently used first, guarded by itself
+	private final Deque<Entry> entries = new ArrayDeque<>();
+
+	// Incremented on every invalidation, guarded by entries
+	private long generation;
+
+	SemanticResponseCache(EmbeddingModel embeddingModel,
+			@Value("${petclinic.ai.response-cache.enabled:true}") boolean enabled,
+			@Value("${petclinic.ai.response-cache.similarity-threshold:0.95}") double similarityThreshold,
+			@Value("${petclinic.ai.response-cache.max-entries:500}") int maxEntries) {
+		this.embeddingModel = embeddingModel;
+		this.enabled = enabled;
+		this.similarityThreshold = similarityThreshold;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Drop every cached answer, and the answers being produced.
+	 */
+	void invalidate() {
+		synchronized (this.entries) {
+			this.generation++;
+			this.entries.clear();
+		}
+	}
+
+	@Override
+	public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+		Lookup lookup = lookup(request);
+		if (lookup == null) {
+			return chain.nextCall(request);
+		}
+		if (lookup.answer() != null) {
+			return response(request, lookup.answer());
+		}
+		ChatClientResponse response = chain.nextCall(request);
+		store(lookup, response);
+		return response;
+	}
+
+	@Override
+	public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+		return Flux.defer(() -> {
+			Lookup lookup = lookup(request);
+			if (lookup == null) {
+				return chain.nextStream(request);
+			}
+			if (lookup.answer() != null) {
+				return Flux.just(response(request, lookup.answer()));
+			}
+			return new ChatClientMessageAggregator().aggregateChatClientResponse(chain.nextStream(request),
+					response -> store(lookup, response));
+		});
+	}
+
+	@Override
+	public String getName() {
+		return "SemanticResponseCache";
+	}
+
+	@Override
+	public int getOrder() {
+		return Advisor.DEFAULT_CHAT_MEMORY_PRECEDENCE_ORDER + 100;
+	}
+
+	/**
+	 * Embed the question of the given request and look up a cached answer, returns
+	 * {@code null} when the cache cannot be used.
+	 */
+	private Lookup lookup(ChatClientRequest request) {
+		String question = firstTurnQuestion(request);
+		if (!this.enabled || question == null) {
+			return null;
+		}
+		long generation;
+		synchronized (this.entries) {
+			generation = this.generation;
+		}
+		float[] embedding;
+		try {
+			embedding = HnswIndex.normalize(this.embeddingModel.embed(question));
+		}
+		catch (RuntimeException ex) {
+			logger.warn("Could not embed the question, the response cache is skipped", ex);
+			return null;
+		}
+		SimilarityKernel kernel = SimilarityKernels.preferred();
+		synchronized (this.entries) {
+			Entry best = null;
+			double bestScore = this.similarityThreshold;
+			for (Entry entry : this.entries) {
+				double score = kernel.dot(entry.embedding(), embedding);
+				if (score >= bestScore) {
+					best = entry;
+					bestScore = score;
+				}
+			}
+			if (best != null) {
+				this.entries.remove(best);
+				this.entries.addFirst(best);
+				logger.debug("Answering \"{}\" from the response cache, similarity {}", question, bestScore);
+				return new Lookup(embedding, generation, best.answer());
+			}
+		}
+		return new Lookup(embedding, generation, null);
+	}
+
+	private void store(Lookup lookup, ChatClientResponse response) {
+		String answer = text(response);
+		if (!StringUtils.hasText(answer)) {
+			return;
+		}
+		synchronized (this.entries) {
+			// The data changed while answering, the answer may be stale or the turn wrote
+			if (this.generation != lookup.generation()) {
+				return;
+			}
+			this.entries.addFirst(new Entry(lookup.embedding(), answer));
+			if (this.entries.size() > this.maxEntries) {
+				this.entries.removeLast();
+			}
+		}
+	}
+
+	int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	private static String text(ChatClientResponse response) {
+		ChatResponse chatResponse = response.chatResponse();
+		return (chatResponse != null && chatResponse.getResult() != null)
+				? chatResponse.getResult().getOutput().getText() : null;
+	}
+
+	private static ChatClientResponse response(ChatClientRequest request, String answer) {
+		ChatResponse chatResponse = new ChatResponse(List.of(new Generation(new AssistantMessage(answer))));
+		return ChatClientResponse.builder().chatResponse(chatResponse).context(request.context()).build();
+	}
+
+	/**
+	 * Return the normalized question of the given request, or {@code null} when it has no
+	 * question or when earlier messages of the conversation were added to it, as the
+	 * answer then depends on the conversation and not only on the question.
+	 */
+	static String firstTurnQuestion(ChatClientRequest request) {
+		int conversationMessages = 0;
+		for (Message message : request.prompt().getInstructions()) {
+			if (message.getMessageType() != MessageType.SYSTEM) {
+				conversationMessages++;
+			}
+		}
+		if (conversationMessages > 1) {
+			return null;
+		}
+		UserMessage userMessage = request.prompt().getUserMessage();
+		String question = (userMessage != null) ? normalize(userMessage.getText()) : null;
+		return StringUtils.hasText(question) ? question : null;
+	}
+
+	/**
+	 * Lower case the question and drop what does not change its meaning: surrounding
+	 * quotes, repeated whitespace and trailing punctuation.
+	 */
+	static String normalize(String question) {
+		if (question == null) {
+			return null;
+		}
+		String normalized = question.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").strip();
+		normalized = normalized.replaceAll("^[\"'\\s]+|[\"'\\s?!.]+$", "");
+		return normalized;
+	}
+
+	private record Entry(float[] embedding, String answer) {
+	}
+
+	private record Lookup(float[] embedding, long generation, String answer) {
+	}
+
+}
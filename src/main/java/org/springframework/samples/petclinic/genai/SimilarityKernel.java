@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+/**
+ * Similarity measures between embeddings, the inner loop of every vector search. Use
+ * {@link SimilarityKernels#preferred()} to get the fastest implementation available on
+ * the running JVM.
+ */
+interface SimilarityKernel {
+
+	/**
+	 * Dot product of two vectors of the same length.
+	 */
+	float dot(float[] a, float[] b);
+
+	/**
+	 * Cosine similarity of two vectors of the same length, {@code 0} when one of them is
+	 * zero.
+	 */
+	float cosine(float[] a, float[] b);
+
+	/**
+	 * Squared Euclidean distance between two vectors of the same length.
+	 */
+	float squaredL2(float[] a, float[] b);
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the {@link SimilarityKernel} once per JVM: the vectorized one when the
+ * {@code jdk.incubator.vector} module is present in the boot layer, the scalar one
+ * otherwise. Setting the {@code petclinic.ai.simd} system property to {@code false}
+ * forces the scalar kernel.
+ */
+final class SimilarityKernels {
+
+	private static final Logger logger = LoggerFactory.getLogger(SimilarityKernels.class);
+
+	private static final SimilarityKernel PREFERRED = select();
+
+	private SimilarityKernels() {
+	}
+
+	static SimilarityKernel preferred() {
+		return PREFERRED;
+	}
+
+	static SimilarityKernel scalar() {
+		return new ScalarSimilarityKernel();
+	}
+
+	/**
+	 * Return the vectorized kernel, or {@code null} when the Vector API is not available.
+	 */
+	static SimilarityKernel vectorized() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+			return null;
+		}
+		try {
+			// Loaded by name so that this class links without the incubator module
+			return (SimilarityKernel) Class
+				.forName(SimilarityKernels.class.getPackageName() + ".VectorizedSimilarityKernel")
+				.getDeclaredConstructor()
+				.newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError ex) {
+			logger.debug("Vector API not usable", ex);
+			return null;
+		}
+	}
+
+	private static SimilarityKernel select() {
+		SimilarityKernel vectorized = Boolean.parseBoolean(System.getProperty("petclinic.ai.simd", "true"))
+				? vectorized() : null;
+		SimilarityKernel kernel = (vectorized != null) ? vectorized : scalar();
+		logger.info("Using {} similarity kernel", kernel);
+		return kernel;
+	}
+
+}
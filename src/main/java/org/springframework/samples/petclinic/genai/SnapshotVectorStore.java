@@ -0,0 +1,443 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.observation.conventions.VectorStoreProvider;
+import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStoreContent;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * {@link org.springframework.ai.vectorstore.VectorStore} that searches a memory-mapped
+ * {@link VectorStoreSnapshot}. Documents added or deleted after the snapshot was loaded
+ * are kept in a small on-heap overlay, copied on write, and {@link #save(File)} folds
+ * both back into a new snapshot.
+ * <p>
+ * Optionally the snapshot embeddings are {@link Quantization quantized} on load, searches
+ * then scan the compact copy and only read the full vectors of the best candidates.
+ */
+public class SnapshotVectorStore extends AbstractObservationVectorStore implements PersistentVectorStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(SnapshotVectorStore.class);
+
+	private final Object lock = new Object();
+
+	// Replaced as a whole under the lock, so that searches see the tombstones and the
+	// overlay that go with the snapshot they read
+	private volatile Contents contents = new Contents(null, new BitSet(), Map.of());
+
+	// Lazily built the first time a document of the snapshot is deleted or replaced
+	private Map<String, Integer> snapshotRows;
+
+	private final Quantization quantization;
+
+	private final int oversample;
+
+	protected SnapshotVectorStore(Builder builder) {
+		super(builder);
+		this.quantization = builder.quantization;
+		this.oversample = builder.oversample;
+	}
+
+	public static Builder builder(EmbeddingModel embeddingModel) {
+		return new Builder(embeddingModel);
+	}
+
+	@Override
+	public void doAdd(List<Document> documents) {
+		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptions.builder().build(),
+				this.batchingStrategy);
+		synchronized (this.lock) {
+			Contents current = this.contents;
+			Map<String, SimpleVectorStoreContent> overlay = new HashMap<>(current.overlay());
+			for (int i = 0; i < documents.size(); i++) {
+				Document document = documents.get(i);
+				overlay.put(document.getId(), new SimpleVectorStoreContent(document.getId(), document.getText(),
+						document.getMetadata(), embeddings.get(i)));
+			}
+			BitSet deleted = tombstone(current, documents.stream().map(Document::getId).toList());
+			this.contents = new Contents(current.loaded(), deleted, Collections.unmodifiableMap(overlay));
+		}
+	}
+
+	@Override
+	public void doDelete(List<String> idList) {
+		synchronized (this.lock) {
+			Contents current = this.contents;
+			Map<String, SimpleVectorStoreContent> overlay = new HashMap<>(current.overlay());
+			idList.forEach(overlay::remove);
+			BitSet deleted = tombstone(current, idList);
+			this.contents = new Contents(current.loaded(), deleted, Collections.unmodifiableMap(overlay));
+		}
+	}
+
+	@Override
+	public List<Document> doSimilaritySearch(SearchRequest request) {
+		float[] query = this.embeddingModel.embed(request.getQuery());
+		double queryNorm = norm(query);
+		Predicate<Map<String, Object>> filter = MetadataFilter.of(request);
+		Contents contents = acquire();
+		try {
+			return search(request, query, queryNorm, filter, contents);
+		}
+		finally {
+			contents.release();
+		}
+	}
+
+	private List<Document> search(SearchRequest request, float[] query, double queryNorm,
+			Predicate<Map<String, Object>> filter, Contents contents) {
+		PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(Candidate::score));
+		VectorStoreSnapshot current = contents.snapshot();
+		QuantizedVectors currentQuantized = (contents.loaded() != null) ? contents.loaded().quantized() : null;
+		BitSet deleted = contents.deleted();
+		float[] buffer = new float[query.length];
+		if (current != null && currentQuantized != null) {
+			// First pass on the quantized vectors, then exact scores for the best of them
+			int[] rows = currentQuantized.candidates(query, request.getTopK() * this.oversample,
+					row -> !deleted.get(row) && (!request.hasFilterExpression() || filter.test(current.metadata(row))));
+			for (int row : rows) {
+				double score = cosine(current.dot(row, query, buffer), queryNorm, current.norm(row));
+				if (score >= request.getSimilarityThreshold()) {
+					offer(candidates, new Candidate(row, null, score), request.getTopK());
+				}
+			}
+		}
+		else if (current != null) {
+			for (int row = 0; row < current.size(); row++) {
+				if (deleted.get(row)) {
+					continue;
+				}
+				double score = cosine(current.dot(row, query, buffer), queryNorm, current.norm(row));
+				// Metadata is only read from the snapshot when there is a filter to apply
+				if (score >= request.getSimilarityThreshold()
+						&& (!request.hasFilterExpression() || filter.test(current.metadata(row)))) {
+					offer(candidates, new Candidate(row, null, score), request.getTopK());
+				}
+			}
+		}
+		for (SimpleVectorStoreContent content : contents.overlay().values()) {
+			float[] embedding = content.getEmbedding();
+			double score = cosine(dot(embedding, query), queryNorm, norm(embedding));
+			if (score >= request.getSimilarityThreshold() && filter.test(content.getMetadata())) {
+				offer(candidates, new Candidate(-1, content, score), request.getTopK());
+			}
+		}
+
+		List<Document> results = new ArrayList<>(candidates.size());
+		while (!candidates.isEmpty()) {
+			Candidate candidate = candidates.poll();
+			results.add(0, (candidate.content() != null) ? candidate.content().toDocument(candidate.score())
+					: current.document(candidate.row(), candidate.score()));
+		}
+		return results;
+	}
+
+	/**
+	 * Replace the contents of this store with the given snapshot, see
+	 * {@link VectorStoreSnapshot#open(Resource)} for the accepted formats.
+	 */
+	@Override
+	public void load(Resource resource) throws IOException {
+		load(VectorStoreSnapshot.open(resource));
+	}
+
+	void load(VectorStoreSnapshot newSnapshot) throws IOException {
+		QuantizedVectors newQuantized = QuantizedVectors.of(newSnapshot, this.quantization);
+		Contents previous;
+		synchronized (this.lock) {
+			previous = this.contents;
+			this.contents = new Contents(new LoadedSnapshot(newSnapshot, newQuantized), new BitSet(), Map.of());
+			this.snapshotRows = null;
+		}
+		// Closed once the searches still reading it are done
+		previous.release();
+	}
+
+	/**
+	 * Return the current contents with a reference to their snapshot held for the caller,
+	 * who must {@link Contents#release() release} it.
+	 */
+	Contents acquire() {
+		while (true) {
+			Contents current = this.contents;
+			// Fails only when a load just replaced and released it, read it again
+			if (current.loaded() == null || current.loaded().acquire()) {
+				return current;
+			}
+		}
+	}
+
+	/**
+	 * Write the current contents of this store, including documents added since the last
+	 * load, to the given file in the binary snapshot format.
+	 */
+	@Override
+	public void save(File file) throws IOException {
+		List<SimpleVectorStoreContent> documents = new ArrayList<>();
+		Contents contents = acquire();
+		try {
+			VectorStoreSnapshot current = contents.snapshot();
+			if (current != null) {
+				for (int row = 0; row < current.size(); row++) {
+					if (!contents.deleted().get(row)) {
+						documents.add(current.content(row));
+					}
+				}
+			}
+			documents.addAll(contents.overlay().values());
+		}
+		finally {
+			contents.release();
+		}
+		VectorStoreSnapshot.write(file.toPath(), documents);
+	}
+
+	@Override
+	public Map<String, String> textDigests() {
+		Map<String, String> digests = new HashMap<>();
+		Contents contents = acquire();
+		try {
+			VectorStoreSnapshot current = contents.snapshot();
+			if (current != null) {
+				for (int row = 0; row < current.size(); row++) {
+					if (!contents.deleted().get(row)) {
+						digests.put(current.id(row), EmbeddingCache.digest(current.text(row)));
+					}
+				}
+			}
+			contents.overlay()
+				.values()
+				.forEach(content -> digests.put(content.getId(), EmbeddingCache.digest(content.getText())));
+		}
+		finally {
+			contents.release();
+		}
+		return digests;
+	}
+
+	@Override
+	public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+		VectorStoreSnapshot current = this.contents.snapshot();
+		int dimensions = (current != null) ? current.dimensions() : this.embeddingModel.dimensions();
+		return VectorStoreObservationContext.builder(VectorStoreProvider.SIMPLE.value(), operationName)
+			.dimensions(dimensions)
+			.collectionName("mapped-snapshot")
+			.similarityMetric(VectorStoreSimilarityMetric.COSINE.value());
+	}
+
+	// Rows of the snapshot deleted or replaced by the given ids, on top of the current
+	// ones, the current BitSet is never modified since searches may be reading it
+	private BitSet tombstone(Contents contents, List<String> ids) {
+		VectorStoreSnapshot current = contents.snapshot();
+		if (current == null) {
+			return contents.deleted();
+		}
+		if (this.snapshotRows == null) {
+			Map<String, Integer> rows = new HashMap<>();
+			for (int row = 0; row < current.size(); row++) {
+				rows.put(current.id(row), row);
+			}
+			this.snapshotRows = rows;
+		}
+		BitSet updated = (BitSet) contents.deleted().clone();
+		for (String id : ids) {
+			Integer row = this.snapshotRows.get(id);
+			if (row != null) {
+				updated.set(row);
+			}
+		}
+		return updated;
+	}
+
+	private static void offer(PriorityQueue<Candidate> candidates, Candidate candidate, int topK) {
+		if (candidates.size() < topK) {
+			candidates.add(candidate);
+		}
+		else if (candidates.peek().score() < candidate.score()) {
+			candidates.poll();
+			candidates.add(candidate);
+		}
+	}
+
+	private static double cosine(double dot, double queryNorm, double norm) {
+		return (queryNorm == 0 || norm == 0) ? 0 : dot / (queryNorm * norm);
+	}
+
+	private static double dot(float[] a, float[] b) {
+		return SimilarityKernels.preferred().dot(a, b);
+	}
+
+	private static double norm(float[] vector) {
+		return Math.sqrt(dot(vector, vector));
+	}
+
+	private record Candidate(int row, SimpleVectorStoreContent content, double score) {
+	}
+
+	/**
+	 * What a search reads: the loaded snapshot, {@code null} before the first load, the
+	 * rows of it that were deleted or replaced, and the documents added since. Never
+	 * modified once published.
+	 */
+	record Contents(LoadedSnapshot loaded, BitSet deleted, Map<String, SimpleVectorStoreContent> overlay) {
+
+		VectorStoreSnapshot snapshot() {
+			return (this.loaded != null) ? this.loaded.snapshot() : null;
+		}
+
+		void release() {
+			if (this.loaded != null) {
+				this.loaded.release();
+			}
+		}
+
+	}
+
+	/**
+	 * A loaded snapshot with its quantized vectors, {@code null} when quantization is
+	 * disabled. The store holds one reference while the snapshot is current and every
+	 * search holds one while reading it, the snapshot is closed when the last one is
+	 * released.
+	 */
+	static final class LoadedSnapshot {
+
+		private final VectorStoreSnapshot snapshot;
+
+		private final QuantizedVectors quantized;
+
+		private final AtomicInteger references = new AtomicInteger(1);
+
+		LoadedSnapshot(VectorStoreSnapshot snapshot, QuantizedVectors quantized) {
+			this.snapshot = snapshot;
+			this.quantized = quantized;
+		}
+
+		VectorStoreSnapshot snapshot() {
+			return this.snapshot;
+		}
+
+		QuantizedVectors quantized() {
+			return this.quantized;
+		}
+
+		// Returns false once the snapshot is closed or about to be
+		private boolean acquire() {
+			int count;
+			do {
+				count = this.references.get();
+				if (count == 0) {
+					return false;
+				}
+			}
+			while (!this.references.compareAndSet(count, count + 1));
+			return true;
+		}
+
+		void release() {
+			if (this.references.decrementAndGet() == 0) {
+				try {
+					this.snapshot.close();
+				}
+				catch (IOException ex) {
+					logger.warn("Could not close the vector store snapshot {}", this.snapshot.getPath(), ex);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * How the embeddings of the snapshot are compressed for the first search pass.
+	 */
+	public enum Quantization {
+
+		/**
+		 * Scan the full precision vectors.
+		 */
+		NONE,
+
+		/**
+		 * One signed byte per dimension.
+		 */
+		INT8,
+
+		/**
+		 * One bit per dimension.
+		 */
+		BINARY
+
+	}
+
+	public static final class Builder extends AbstractVectorStoreBuilder<Builder> {
+
+		private Quantization quantization = Quantization.NONE;
+
+		private int oversample = 8;
+
+		private Builder(EmbeddingModel embeddingModel) {
+			super(embeddingModel);
+		}
+
+		/**
+		 * Search quantized copies of the snapshot embeddings first, then rescore the best
+		 * candidates against the full vectors.
+		 */
+		public Builder quantization(Quantization quantization) {
+			this.quantization = quantization;
+			return this;
+		}
+
+		/**
+		 * Number of candidates rescored per requested result, higher values trade latency
+		 * for recall.
+		 */
+		public Builder oversample(int oversample) {
+			this.oversample = oversample;
+			return this;
+		}
+
+		@Override
+		public SnapshotVectorStore build() {
+			return new SnapshotVectorStore(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Renders tool results as compact tables, to spend fewer input tokens than their JSON
+ * serialization. A list of objects, or a single object, is rendered as one header line of
+ * {@code |} separated column names followed by one line per object. Field names are only
+ * written in the header:
+ * <ul>
+ * <li>nested objects are written as {@code (value,...)}, in the order of the columns
+ * listed in parentheses in the header, such as {@code pets(name,type)};</li>
+ * <li>nested lists are written as {@code [value,...]};</li>
+ * <li>null values and empty lists are left empty, and objects having a single field are
+ * replaced by the value of that field;</li>
+ * <li>strings are only quoted when they contain a separator.</li>
+ * </ul>
+ * The fields of the results of a tool can be projected with
+ * {@code petclinic.ai.tool-results.fields.<tool name>}, a comma separated list of dotted
+ * paths such as {@code pets.type.name}, in the order of the columns. Strings holding a
+ * JSON object, such as the vet documents, are rendered like objects.
+ * <p>
+ * With {@code petclinic.ai.tool-results.format=json}, results are serialized to JSON as
+ * Spring AI does by default.
+ */
+@Component
+class ToolResultFormatter {
+
+	private static final String FIELDS_PROPERTY = "petclinic.ai.tool-results.fields.";
+
+	private static final String SEPARATORS = "|,()[]\"\r\n";
+
+	// Dates are written as ISO strings rather than arrays of numbers
+	private final ObjectMapper objectMapper = JsonParser.getObjectMapper()
+		.copy()
+		.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	private final boolean compact;
+
+	private final Environment environment;
+
+	ToolResultFormatter(@Value("${petclinic.ai.tool-results.format:compact}") String format, Environment environment) {
+		this.compact = !"json".equalsIgnoreCase(format);
+		this.environment = environment;
+	}
+
+	/**
+	 * Return the converter of the results of the given tool.
+	 */
+	ToolCallResultConverter converter(String toolName) {
+		if (!this.compact) {
+			return new DefaultToolCallResultConverter();
+		}
+		Map<String, Columns> projection = projection(this.environment.getProperty(FIELDS_PROPERTY + toolName));
+		return (result, returnType) -> format(result, returnType, projection);
+	}
+
+	private String format(Object result, Type returnType, Map<String, Columns> projection) {
+		if (returnType == Void.TYPE) {
+			return "Done";
+		}
+		JsonNode node = project(parseDocuments(this.objectMapper.valueToTree(result)), projection);
+		Columns columns = new Columns();
+		columns.collect(node);
+		if (columns.isEmpty()) {
+			// Scalars and lists of scalars
+			StringBuilder text = new StringBuilder();
+			write(node, columns, text);
+			return text.toString();
+		}
+		StringJoiner header = new StringJoiner("|");
+		columns.forEach((name, nested) -> header.add(nested.header(name)));
+		StringBuilder table = new StringBuilder(header.toString());
+		Iterable<JsonNode> rows = node.isArray() ? node : List.of(node);
+		for (JsonNode row : rows) {
+			table.append('\n');
+			boolean first = true;
+			for (Map.Entry<String, Columns> column : columns.entrySet()) {
+				table.append(first ? "" : "|");
+				write(row.get(column.getKey()), column.getValue(), table);
+				first = false;
+			}
+		}
+		return table.toString();
+	}
+
+	/**
+	 * Parse a comma separated list of dotted paths into a tree of field names, in order.
+	 * An empty tree keeps every field.
+	 */
+	private static Map<String, Columns> projection(String fields) {
+		Columns projection = new Columns();
+		for (String path : StringUtils.commaDelimitedListToSet(fields)) {
+			Columns level = projection;
+			for (String name : StringUtils.delimitedListToStringArray(path.trim(), ".")) {
+				level = level.computeIfAbsent(name, n -> new Columns());
+			}
+		}
+		return projection;
+	}
+
+	private JsonNode parseDocuments(JsonNode node) {
+		if (node.isTextual() && node.asText().startsWith("{")) {
+			try {
+				return this.objectMapper.readTree(node.asText());
+			}
+			catch (JsonProcessingException ex) {
+				return node;
+			}
+		}
+		if (node.isArray()) {
+			ArrayNode array = (ArrayNode) node;
+			for (int i = 0; i < array.size(); i++) {
+				array.set(i, parseDocuments(array.get(i)));
+			}
+		}
+		return node;
+	}
+
+	private static JsonNode project(JsonNode node, Map<String, Columns> projection) {
+		if (projection.isEmpty()) {
+			return node;
+		}
+		if (node.isArray()) {
+			ArrayNode array = (ArrayNode) node;
+			for (int i = 0; i < array.size(); i++) {
+				array.set(i, project(array.get(i), projection));
+			}
+			return array;
+		}
+		if (!node.isObject()) {
+			return node;
+		}
+		ObjectNode projected = ((ObjectNode) node).objectNode();
+		projection.forEach((name, nested) -> {
+			JsonNode value = node.get(name);
+			if (value != null) {
+				projected.set(name, project(value, nested));
+			}
+		});
+		return projected;
+	}
+
+	private static void write(JsonNode node, Columns columns, StringBuilder text) {
+		if (isEmpty(node)) {
+			return;
+		}
+		if (node.isArray()) {
+			text.append('[');
+			boolean first = true;
+			for (JsonNode element : node) {
+				text.append(first ? "" : ",");
+				write(element, columns, text);
+				first = false;
+			}
+			text.append(']');
+		}
+		else if (node.isObject() && columns.size() == 1) {
+			Map.Entry<String, Columns> column = columns.entrySet().iterator().next();
+			write(node.get(column.getKey()), column.getValue(), text);
+		}
+		else if (node.isObject()) {
+			text.append('(');
+			boolean first = true;
+			for (Map.Entry<String, Columns> column : columns.entrySet()) {
+				text.append(first ? "" : ",");
+				write(node.get(column.getKey()), column.getValue(), text);
+				first = false;
+			}
+			text.append(')');
+		}
+		else if (node.isTextual() && needsQuotes(node.asText())) {
+			text.append(node);
+		}
+		else {
+			text.append(node.asText());
+		}
+	}
+
+	private static boolean needsQuotes(String value) {
+		if (value.isBlank() || !value.strip().equals(value)) {
+			return true;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (SEPARATORS.indexOf(value.charAt(i)) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isEmpty(JsonNode node) {
+		return node == null || node.isNull() || node.isMissingNode() || (node.isContainerNode() && node.isEmpty());
+	}
+
+	/**
+	 * Names of the fields found at one level of the results, with the fields nested in
+	 * each of them.
+	 */
+	private static final class Columns extends LinkedHashMap<String, Columns> {
+
+		void collect(JsonNode node) {
+			if (node.isArray()) {
+				node.forEach(this::collect);
+			}
+			else if (node.isObject()) {
+				node.properties().forEach(field -> {
+					if (!ToolResultFormatter.isEmpty(field.getValue())) {
+						computeIfAbsent(field.getKey(), name -> new Columns()).collect(field.getValue());
+					}
+				});
+			}
+		}
+
+		String header(String name) {
+			if (size() == 1) {
+				return values().iterator().next().header(name);
+			}
+			if (isEmpty()) {
+				return name;
+			}
+			StringJoiner nested = new StringJoiner(",", name + "(", ")");
+			forEach((child, columns) -> nested.add(columns.header(child)));
+			return nested.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Results of read-only tool calls, keyed by tool name and arguments. A result is reused
+ * for the rest of the chat turn that computed it, which is identified by the
+ * {@link #TURN_ID} entry of the tool context, and by any turn for the configured time to
+ * live. Any write clears it.
+ */
+@Component
+class ToolResultMemo {
+
+	/**
+	 * Tool context entry identifying the current chat turn.
+	 */
+	static final String TURN_ID = "turnId";
+
+	// How long the results of a turn are kept for that turn, beyond the time to live
+	private static final long MAX_TURN_NANOS = Duration.ofMinutes(2).toNanos();
+
+	private final long ttlNanos;
+
+	private final int maxEntries;
+
+	// Oldest first, guarded by itself
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+	// Incremented on every invalidation, guarded by entries
+	private long generation;
+
+	ToolResultMemo(@Value("${petclinic.ai.tool-memo.ttl:30s}") Duration ttl,
+			@Value("${petclinic.ai.tool-memo.max-entries:256}") int maxEntries) {
+		this.ttlNanos = ttl.toNanos();
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Return the memoized result of the given call, or {@code null}.
+	 */
+	String get(String key, Object turnId) {
+		synchronized (this.entries) {
+			Entry entry = this.entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			long age = System.nanoTime() - entry.createdNanos();
+			boolean sameTurn = turnId != null && Objects.equals(turnId, entry.turnId()) && age < MAX_TURN_NANOS;
+			return (sameTurn || age < this.ttlNanos) ? entry.result() : null;
+		}
+	}
+
+	long generation() {
+		synchronized (this.entries) {
+			return this.generation;
+		}
+	}
+
+	/**
+	 * Memoize the result of a call started at the given generation, unless the data may
+	 * have changed since.
+	 */
+	void put(String key, Object turnId, String result, long generation) {
+		long now = System.nanoTime();
+		synchronized (this.entries) {
+			if (this.generation != generation) {
+				return;
+			}
+			this.entries.remove(key);
+			this.entries.put(key, new Entry(result, turnId, now));
+			long maxAge = Math.max(this.ttlNanos, MAX_TURN_NANOS);
+			Iterator<Entry> oldest = this.entries.values().iterator();
+			while (oldest.hasNext()) {
+				Entry entry = oldest.next();
+				if (this.entries.size() <= this.maxEntries && now - entry.createdNanos() < maxAge) {
+					break;
+				}
+				oldest.remove();
+			}
+		}
+	}
+
+	void invalidate() {
+		synchronized (this.entries) {
+			this.generation++;
+			this.entries.clear();
+		}
+	}
+
+	private record Entry(String result, Object turnId, long createdNanos) {
+	}
+
+}
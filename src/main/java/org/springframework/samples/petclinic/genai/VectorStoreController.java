@@ -16,101 +16,169 @@
 
 package org.springframework.samples.petclinic.genai;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.document.Document;
-import org.springframework.ai.document.DocumentReader;
-import org.springframework.ai.reader.JsonReader;
-import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.samples.petclinic.vet.Vet;
-import org.springframework.samples.petclinic.vet.VetRepository;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.time.Duration;
 
 /**
  * Loads the veterinarians data into a vector store for the purpose of RAG functionality.
+ * The load runs in the background so that the rest of the application starts serving
+ * requests right away, {@link #getState()} tells whether the vector store can be used. A
+ * failed load is retried with an exponential backoff, the state stays
+ * {@link State#FAILED} until a retry succeeds.
  *
+ * @see VectorStoreHealthIndicator
  * @author Oded Shopen
  */
 @Component
 public class VectorStoreController {
 
+	/**
+	 * Progress of the vector store load.
+	 */
+	public enum State {
+
+		LOADING, READY, FAILED
+
+	}
+
+	private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
+
 	private final Logger logger = LoggerFactory.getLogger(VectorStoreController.class);
 
 	private final VectorStore vectorStore;
 
-	private final VetRepository vetRepository;
+	private final VetIngestionPipeline ingestionPipeline;
 
-	public VectorStoreController(VectorStore vectorStore, VetRepository vetRepository) {
-		this.vectorStore = vectorStore;
-		this.vetRepository = vetRepository;
-	}
+	private final VetIndex vetIndex;
 
-	@EventListener
-	public void loadVetDataToVectorStoreOnStartup(ApplicationStartedEvent event) throws IOException {
-		Resource resource = new ClassPathResource("vectorstore.json");
-
-		// Check if file exists
-		if (resource.exists()) {
-			// In order to save on AI credits, use a pre-embedded database that was saved
-			// to disk based on the current data in the h2 data.sql file
-			((SimpleVectorStore) this.vectorStore).load(resource);
-			logger.info("Vector store loaded from existing {} file in the classpath", resource.getFilename());
-			return;
-		}
+	private final Duration retryDelay;
 
-		// If vectorstore.json is deleted, the data will be loaded on startup every time.
-		// Warning - this can be costly in terms of credits used with the AI provider.
-		// Fetches all Vet entities and creates a document per vet
-		Pageable pageable = PageRequest.of(0, Integer.MAX_VALUE);
-		Page<@NonNull Vet> vetsPage = vetRepository.findAll(pageable);
+	// Where to write the snapshot after embedding the vets, a temporary file if not set
+	@Value("${petclinic.ai.vectorstore.snapshot-path:}")
+	private String snapshotPath;
+
+	private volatile State state = State.LOADING;
+
+	public VectorStoreController(VectorStore vectorStore, VetIngestionPipeline ingestionPipeline, VetIndex vetIndex,
+			@Value("${petclinic.ai.warmup.retry-delay:5s}") Duration retryDelay) {
+		this.vectorStore = vectorStore;
+		this.ingestionPipeline = ingestionPipeline;
+		this.vetIndex = vetIndex;
+		this.retryDelay = retryDelay;
+	}
 
-		Resource vetsAsJson = convertListToJsonResource(vetsPage.getContent());
-		DocumentReader reader = new JsonReader(vetsAsJson);
+	public State getState() {
+		return this.state;
+	}
 
-		List<Document> documents = reader.get();
-		// add the documents to the vector store
-		this.vectorStore.add(documents);
+	@EventListener
+	public void loadVetDataToVectorStoreOnStartup(ApplicationStartedEvent event) {
+		Thread thread = new Thread(this::warmUp, "vector-store-warmup");
+		thread.setDaemon(true);
+		thread.start();
+	}
 
-		if (vectorStore instanceof SimpleVectorStore) {
-			var file = File.createTempFile("vectorstore", ".json");
-			((SimpleVectorStore) this.vectorStore).save(file);
-			logger.info("vector store contents written to {}", file.getAbsolutePath());
+	void warmUp() {
+		boolean indexed = false;
+		Duration delay = this.retryDelay;
+		while (true) {
+			try {
+				// Exact vet lookups only need the database
+				if (!indexed) {
+					this.vetIndex.build();
+					indexed = true;
+				}
+				load();
+				this.state = State.READY;
+				return;
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				this.state = State.FAILED;
+				return;
+			}
+			catch (IOException | RuntimeException ex) {
+				logger.error("Could not load the vector store, retrying in {}", delay, ex);
+				this.state = State.FAILED;
+			}
+			try {
+				Thread.sleep(delay.toMillis());
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			delay = (delay.compareTo(MAX_RETRY_DELAY.dividedBy(2)) < 0) ? delay.multipliedBy(2) : MAX_RETRY_DELAY;
 		}
-
-		logger.info("vector store loaded with {} documents", documents.size());
 	}
 
-	public Resource convertListToJsonResource(List<Vet> vets) {
-		ObjectMapper objectMapper = new ObjectMapper();
-		try {
-			// Convert List<Vet> to JSON string
-			String json = objectMapper.writeValueAsString(vets);
+	void load() throws IOException, InterruptedException {
+		// In order to save on AI credits, use a pre-embedded database that was saved
+		// to disk based on the current data in the h2 data.sql file. The binary
+		// snapshot is memory-mapped, the older JSON format is converted on the fly.
+		for (String location : new String[] { "vectorstore.bin", "vectorstore.json" }) {
+			Resource resource = new ClassPathResource(location);
+			if (resource.exists() && this.vectorStore instanceof PersistentVectorStore persistentVectorStore) {
+				persistentVectorStore.load(resource);
+				logger.info("Vector store loaded from existing {} file in the classpath", resource.getFilename());
+				return;
+			}
+		}
 
-			// Convert JSON string to byte array
-			byte[] jsonBytes = json.getBytes();
+		// A snapshot left by a previous run is reused, and when that run was
+		// interrupted the ingestion resumes after the last vet it stored
+		File snapshot = StringUtils.hasText(this.snapshotPath) ? new File(this.snapshotPath) : null;
+		int resumeAfter = 0;
+		if (snapshot != null && snapshot.exists()
+				&& this.vectorStore instanceof PersistentVectorStore persistentVectorStore) {
+			persistentVectorStore.load(new FileSystemResource(snapshot));
+			Integer checkpoint = VetIngestionPipeline.checkpoint(snapshot);
+			if (checkpoint == null) {
+				logger.info("Vector store loaded from {}", snapshot.getAbsolutePath());
+				reconcile(persistentVectorStore, snapshot);
+				return;
+			}
+			resumeAfter = checkpoint;
+			logger.info("Resuming vector store ingestion after vet {}", resumeAfter);
+		}
 
-			// Create a ByteArrayResource from the byte array
-			return new ByteArrayResource(jsonBytes);
+		// If the snapshot is deleted, the data will be loaded on startup every time.
+		// Warning - this can be costly in terms of credits used with the AI provider.
+		// The vets are embedded in batches, later changes are applied incrementally by
+		// the VetIndexer
+		if (snapshot == null && this.vectorStore instanceof PersistentVectorStore) {
+			snapshot = File.createTempFile("vectorstore", ".bin");
 		}
-		catch (JsonProcessingException e) {
-			logger.error("Problems encountered when generating JSON from the vets list", e);
-			return null;
+		int count = this.ingestionPipeline.ingest(resumeAfter, snapshot);
+		if (snapshot != null && this.vectorStore instanceof PersistentVectorStore persistentVectorStore) {
+			// Serve from the snapshot just written, moving the embeddings off the heap
+			persistentVectorStore.load(new FileSystemResource(snapshot));
+			logger.info("vector store snapshot written to {}", snapshot.getAbsolutePath());
+		}
+		logger.info("vector store loaded with {} documents", count);
+	}
+
+	// The vets may have changed since the snapshot was written, by the VetIndexer of
+	// the previous run or while the application was stopped
+	private void reconcile(PersistentVectorStore persistentVectorStore, File snapshot) throws IOException {
+		int changed = this.ingestionPipeline.reconcile(persistentVectorStore);
+		if (changed > 0) {
+			persistentVectorStore.save(snapshot);
+			persistentVectorStore.load(new FileSystemResource(snapshot));
+			logger.info("Vector store snapshot {} updated with {} changed vets", snapshot.getAbsolutePath(), changed);
 		}
 	}
 
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the progress of the vector store load, as the {@code vectorStore} member of the
+ * readiness group. While the vector store is loading, only {@code /chat} is unavailable
+ * by default. With {@code petclinic.ai.warmup.gate=readiness} the whole instance is
+ * reported out of service instead, so that it receives no traffic until RAG works.
+ */
+@Component
+public class VectorStoreHealthIndicator implements HealthIndicator {
+
+	private final VectorStoreController vectorStoreController;
+
+	private final boolean gateReadiness;
+
+	public VectorStoreHealthIndicator(VectorStoreController vectorStoreController,
+			@Value("${petclinic.ai.warmup.gate:chat}") String gate) {
+		this.vectorStoreController = vectorStoreController;
+		this.gateReadiness = "readiness".equalsIgnoreCase(gate);
+	}
+
+	@Override
+	public Health health() {
+		State state = this.vectorStoreController.getState();
+		// Without the readiness gate, the rest of the application works without RAG
+		Health.Builder builder = (state == State.READY || !this.gateReadiness) ? Health.up()
+				: (state == State.LOADING) ? Health.outOfService() : Health.down();
+		return builder.withDetail("state", state).build();
+	}
+
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SimpleVectorStoreContent;
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped view of a binary vector store snapshot. Embeddings are kept
+ * off-heap in a contiguous float matrix and copied one row at a time into a reusable
+ * buffer to be scored, so a snapshot can be searched without deserializing it; only the
+ * documents that end up in a result are read from disk.
+ * <p>
+ * All values are little-endian. The file layout is: <pre>
+ * header     magic, version, dimensions, count and section offsets ({@value #HEADER_SIZE} bytes)
+ * matrix     count x dimensions float32 embeddings, one row per document
+ * norms      count float32 L2 norms of the matrix rows
+ * documents  per document: id, text and metadata JSON as length-prefixed UTF-8
+ * index      count + 1 int64 offsets of the document entries, relative to the documents section
+ * </pre>
+ */
+public final class VectorStoreSnapshot implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(VectorStoreSnapshot.class);
+
+	static final int MAGIC = 0x50435653; // "PCVS"
+
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 64;
+
+	// Largest region mapped at once, a single MappedByteBuffer cannot exceed 2GB
+	private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+	};
+
+	private final Path path;
+
+	private final FileChannel channel;
+
+	private final int dimensions;
+
+	private final int count;
+
+	private final int rowsPerChunk;
+
+	private final FloatBuffer[] matrix;
+
+	private final FloatBuffer norms;
+
+	private final LongBuffer index;
+
+	private final long documentsOffset;
+
+	private VectorStoreSnapshot(Path path, FileChannel channel) throws IOException {
+		this.path = path;
+		this.channel = channel;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(header, 0);
+		header.flip();
+		if (header.getInt() != MAGIC) {
+			throw new IOException(path + " is not a vector store snapshot");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported vector store snapshot version " + version + " in " + path);
+		}
+		this.dimensions = header.getInt();
+		this.count = header.getInt();
+		long matrixOffset = header.getLong();
+		long normsOffset = header.getLong();
+		this.documentsOffset = header.getLong();
+		long indexOffset = header.getLong();
+
+		long rowBytes = (long) this.dimensions * Float.BYTES;
+		this.rowsPerChunk = (int) Math.max(1, MAX_CHUNK_BYTES / Math.max(rowBytes, 1));
+		int chunks = (this.count + this.rowsPerChunk - 1) / this.rowsPerChunk;
+		this.matrix = new FloatBuffer[chunks];
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			int rows = Math.min(this.rowsPerChunk, this.count - chunk * this.rowsPerChunk);
+			this.matrix[chunk] = map(matrixOffset + chunk * this.rowsPerChunk * rowBytes, rows * rowBytes)
+				.asFloatBuffer();
+		}
+		this.norms = map(normsOffset, (long) this.count * Float.BYTES).asFloatBuffer();
+		this.index = map(indexOffset, (this.count + 1L) * Long.BYTES).asLongBuffer();
+	}
+
+	/**
+	 * Memory-map the snapshot stored in the given file.
+	 */
+	public static VectorStoreSnapshot open(Path path) throws IOException {
+		return open(path, StandardOpenOption.READ);
+	}
+
+	private static VectorStoreSnapshot open(Path path, StandardOpenOption... options) throws IOException {
+		FileChannel channel = FileChannel.open(path, options);
+		try {
+			return new VectorStoreSnapshot(path, channel);
+		}
+		catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Memory-map the snapshot held by the given resource. A {@code .json} file written by
+	 * {@link org.springframework.ai.vectorstore.SimpleVectorStore} is converted to the
+	 * binary format first. Resources that are not plain files, such as entries inside the
+	 * application jar, are copied to a temporary file so they can be mapped. Temporary
+	 * files are deleted when the snapshot is closed, right away on POSIX systems where
+	 * the mapping outlives the file name.
+	 */
+	public static VectorStoreSnapshot open(Resource resource) throws IOException {
+		String filename = (resource.getFilename() != null) ? resource.getFilename() : "vectorstore";
+		if (filename.endsWith(".json")) {
+			Path path = Files.createTempFile("vectorstore", ".bin");
+			try {
+				convertJson(resource, path);
+			}
+			catch (IOException | RuntimeException ex) {
+				Files.deleteIfExists(path);
+				throw ex;
+			}
+			logger.info("Converted JSON vector store {} to binary snapshot {}", resource, path);
+			return openTemporary(path);
+		}
+		if (resource.isFile()) {
+			return open(resource.getFile().toPath());
+		}
+		Path path = Files.createTempFile("vectorstore", ".bin");
+		try (InputStream in = resource.getInputStream()) {
+			Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException | RuntimeException ex) {
+			Files.deleteIfExists(path);
+			throw ex;
+		}
+		return openTemporary(path);
+	}
+
+	private static VectorStoreSnapshot openTemporary(Path path) throws IOException {
+		try {
+			return open(path, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+		}
+		catch (IOException | RuntimeException ex) {
+			Files.deleteIfExists(path);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Write the given contents as a snapshot. The file is first written next to the
+	 * target and then moved in place, so a snapshot that is currently mapped is never
+	 * seen half written.
+	 */
+	public static void write(Path target, Collection<SimpleVectorStoreContent> contents) throws IOException {
+		int count = contents.size();
+		int dimensions = contents.isEmpty() ? 0 : contents.iterator().next().getEmbedding().length;
+		long rowBytes = (long) dimensions * Float.BYTES;
+		long matrixOffset = HEADER_SIZE;
+		long normsOffset = matrixOffset + count * rowBytes;
+		long documentsOffset = normsOffset + (long) count * Float.BYTES;
+
+		Path parent = target.toAbsolutePath().getParent();
+		Path tmp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+		try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+			ByteBuffer row = ByteBuffer.allocate((int) rowBytes).order(ByteOrder.LITTLE_ENDIAN);
+			ByteBuffer norms = ByteBuffer.allocate(count * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			ByteBuffer index = ByteBuffer.allocate((count + 1) * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			long rowPosition = matrixOffset;
+			long documentPosition = documentsOffset;
+			for (SimpleVectorStoreContent content : contents) {
+				float[] embedding = content.getEmbedding();
+				if (embedding.length != dimensions) {
+					throw new IllegalArgumentException("Document " + content.getId() + " has " + embedding.length
+							+ " dimensions, expected " + dimensions);
+				}
+				row.clear();
+				double sumOfSquares = 0;
+				for (float value : embedding) {
+					row.putFloat(value);
+					sumOfSquares += value * value;
+				}
+				row.flip();
+				writeFully(out, row, rowPosition);
+				rowPosition += rowBytes;
+				norms.putFloat((float) Math.sqrt(sumOfSquares));
+
+				index.putLong(documentPosition - documentsOffset);
+				ByteBuffer entry = encodeDocument(content);
+				documentPosition += writeFully(out, entry, documentPosition);
+			}
+			index.putLong(documentPosition - documentsOffset);
+			writeFully(out, norms.flip(), normsOffset);
+			long indexOffset = documentPosition;
+			writeFully(out, index.flip(), indexOffset);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(dimensions).putInt(count);
+			header.putLong(matrixOffset).putLong(normsOffset).putLong(documentsOffset).putLong(indexOffset);
+			writeFully(out, header.clear(), 0);
+			out.force(true);
+		}
+		catch (IOException | RuntimeException ex) {
+			Files.deleteIfExists(tmp);
+			throw ex;
+		}
+		Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Convert a JSON file written by
+	 * {@link org.springframework.ai.vectorstore.SimpleVectorStore#save(java.io.File)}
+	 * into a binary snapshot. The JSON is parsed entry by entry and embeddings are read
+	 * straight into primitive arrays, the entries are held in memory until the snapshot
+	 * is written since its layout needs their count up front.
+	 */
+	public static void convertJson(Resource json, Path target) throws IOException {
+		List<SimpleVectorStoreContent> contents = new ArrayList<>();
+		try (InputStream in = json.getInputStream(); JsonParser parser = OBJECT_MAPPER.createParser(in)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException(json + " does not contain a JSON vector store");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String key = parser.currentName();
+				parser.nextToken();
+				JsonContent entry = OBJECT_MAPPER.readValue(parser, JsonContent.class);
+				String id = (entry.id() != null) ? entry.id() : key;
+				Map<String, Object> metadata = (entry.metadata() != null) ? entry.metadata() : Map.of();
+				contents.add(new SimpleVectorStoreContent(id, entry.text(), metadata, entry.embedding()));
+			}
+		}
+		write(target, contents);
+	}
+
+	public Path getPath() {
+		return this.path;
+	}
+
+	public int dimensions() {
+		return this.dimensions;
+	}
+
+	public int size() {
+		return this.count;
+	}
+
+	public float norm(int row) {
+		return this.norms.get(row);
+	}
+
+	/**
+	 * Dot product of the given row with the query.
+	 */
+	public double dot(int row, float[] query) {
+		return dot(row, query, new float[this.dimensions]);
+	}
+
+	/**
+	 * Dot product of the given row with the query, using the given buffer of
+	 * {@link #dimensions()} floats, reusable across rows, to copy the row from the mapped
+	 * matrix.
+	 */
+	public double dot(int row, float[] query, float[] buffer) {
+		FloatBuffer chunk = this.matrix[row / this.rowsPerChunk];
+		chunk.get((row % this.rowsPerChunk) * this.dimensions, buffer);
+		return SimilarityKernels.preferred().dot(buffer, query);
+	}
+
+	/**
+	 * Copy the embedding stored at the given row onto the heap.
+	 */
+	public float[] embedding(int row) {
+		FloatBuffer chunk = this.matrix[row / this.rowsPerChunk];
+		float[] embedding = new float[this.dimensions];
+		chunk.get((row % this.rowsPerChunk) * this.dimensions, embedding);
+		return embedding;
+	}
+
+	public String id(int row) {
+		ByteBuffer entry = readEntry(row);
+		return readString(entry);
+	}
+
+	public String text(int row) {
+		ByteBuffer entry = readEntry(row);
+		skipString(entry);
+		return readString(entry);
+	}
+
+	public Map<String, Object> metadata(int row) {
+		ByteBuffer entry = readEntry(row);
+		skipString(entry);
+		skipString(entry);
+		return readMetadata(entry);
+	}
+
+	public Document document(int row, Double score) {
+		ByteBuffer entry = readEntry(row);
+		String id = readString(entry);
+		String text = readString(entry);
+		Map<String, Object> metadata = readMetadata(entry);
+		return Document.builder().id(id).text(text).metadata(metadata).score(score).build();
+	}
+
+	public SimpleVectorStoreContent content(int row) {
+		ByteBuffer entry = readEntry(row);
+		String id = readString(entry);
+		String text = readString(entry);
+		Map<String, Object> metadata = readMetadata(entry);
+		return new SimpleVectorStoreContent(id, text, metadata, embedding(row));
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	private ByteBuffer map(long offset, long length) throws IOException {
+		return this.channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private ByteBuffer readEntry(int row) {
+		long start = this.index.get(row);
+		long end = this.index.get(row + 1);
+		ByteBuffer entry = ByteBuffer.allocate((int) (end - start)).order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			readFully(entry, this.documentsOffset + start);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read document " + row + " from " + this.path, ex);
+		}
+		return entry.flip();
+	}
+
+	private void readFully(ByteBuffer target, long position) throws IOException {
+		while (target.hasRemaining()) {
+			int read = this.channel.read(target, position);
+			if (read < 0) {
+				throw new EOFException("Unexpected end of vector store snapshot " + this.path);
+			}
+			position += read;
+		}
+	}
+
+	private static int writeFully(FileChannel out, ByteBuffer source, long position) throws IOException {
+		int total = source.remaining();
+		while (source.hasRemaining()) {
+			position += out.write(source, position);
+		}
+		return total;
+	}
+
+	private static ByteBuffer encodeDocument(SimpleVectorStoreContent content) throws IOException {
+		byte[] id = content.getId().getBytes(StandardCharsets.UTF_8);
+		byte[] text = (content.getText() != null) ? content.getText().getBytes(StandardCharsets.UTF_8) : new byte[0];
+		byte[] metadata = OBJECT_MAPPER.writeValueAsBytes(content.getMetadata());
+		ByteBuffer entry = ByteBuffer.allocate(3 * Integer.BYTES + id.length + text.length + metadata.length)
+			.order(ByteOrder.LITTLE_ENDIAN);
+		entry.putInt(id.length).put(id);
+		entry.putInt(text.length).put(text);
+		entry.putInt(metadata.length).put(metadata);
+		return entry.flip();
+	}
+
+	private static String readString(ByteBuffer entry) {
+		int length = entry.getInt();
+		String value = new String(entry.array(), entry.arrayOffset() + entry.position(), length,
+				StandardCharsets.UTF_8);
+		entry.position(entry.position() + length);
+		return value;
+	}
+
+	private static void skipString(ByteBuffer entry) {
+		int length = entry.getInt();
+		entry.position(entry.position() + length);
+	}
+
+	private static Map<String, Object> readMetadata(ByteBuffer entry) {
+		int length = entry.getInt();
+		try {
+			return OBJECT_MAPPER.readValue(entry.array(), entry.arrayOffset() + entry.position(), length,
+					METADATA_TYPE);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Corrupt document metadata in vector store snapshot", ex);
+		}
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	private record JsonContent(String id, @JsonAlias("content") String text, Map<String, Object> metadata,
+			float[] embedding) {
+	}
+
+}
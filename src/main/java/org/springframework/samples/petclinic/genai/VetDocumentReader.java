@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentReader;
+import org.springframework.data.domain.Limit;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link DocumentReader} producing one document per vet, straight from the entities. Vets
+ * are fetched in id order, one chunk at a time as the {@link #stream() stream} is
+ * consumed, so only the current chunk is held in memory and no intermediate JSON payload
+ * is built for the whole table.
+ */
+class VetDocumentReader implements DocumentReader {
+
+	private final VetRepository vetRepository;
+
+	private final int afterId;
+
+	private final int readSize;
+
+	/**
+	 * @param afterId only read vets with a greater id, 0 to read them all
+	 * @param readSize the number of vets fetched per query
+	 */
+	VetDocumentReader(VetRepository vetRepository, int afterId, int readSize) {
+		this.vetRepository = vetRepository;
+		this.afterId = afterId;
+		this.readSize = readSize;
+	}
+
+	/**
+	 * Read all the documents at once, prefer {@link #stream()} for large tables.
+	 */
+	@Override
+	public List<Document> get() {
+		return stream().toList();
+	}
+
+	/**
+	 * Return a lazy stream of documents, the database is only queried as the stream is
+	 * consumed.
+	 */
+	Stream<Document> stream() {
+		return StreamSupport.stream(new ChunkSpliterator(), false);
+	}
+
+	private class ChunkSpliterator extends Spliterators.AbstractSpliterator<Document> {
+
+		private Iterator<Vet> chunk = List.<Vet>of().iterator();
+
+		private int lastId = VetDocumentReader.this.afterId;
+
+		private boolean exhausted;
+
+		ChunkSpliterator() {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Document> action) {
+			if (!this.chunk.hasNext() && !this.exhausted) {
+				List<Vet> vets = VetDocumentReader.this.vetRepository.findByIdGreaterThanOrderByIdAsc(this.lastId,
+						Limit.of(VetDocumentReader.this.readSize));
+				this.exhausted = vets.size() < VetDocumentReader.this.readSize;
+				this.chunk = vets.iterator();
+			}
+			if (!this.chunk.hasNext()) {
+				return false;
+			}
+			Vet vet = this.chunk.next();
+			this.lastId = vet.getId();
+			action.accept(VetDocuments.toDocument(vet));
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.ai.document.Document;
+import org.springframework.samples.petclinic.system.JsonWriters;
+import org.springframework.samples.petclinic.vet.Vet;
+
+import java.util.Map;
+
+/**
+ * Converts vets to the documents held by the vector store. Each vet is stored under an id
+ * derived from its primary key, so that a changed vet replaces its previous document.
+ */
+final class VetDocuments {
+
+	static final String VET_ID = "vetId";
+
+	private VetDocuments() {
+	}
+
+	static String id(Integer vetId) {
+		return "vet-" + vetId;
+	}
+
+	static Document toDocument(Vet vet) {
+		try {
+			return Document.builder()
+				.id(id(vet.getId()))
+				.text(JsonWriters.writerFor(Vet.class).writeValueAsString(vet))
+				.metadata(Map.of(VET_ID, vet.getId()))
+				.build();
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Could not convert vet " + vet.getId() + " to JSON", ex);
+		}
+	}
+
+}
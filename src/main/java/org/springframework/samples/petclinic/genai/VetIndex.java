@@ -0,0 +1,218 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.samples.petclinic.model.NamedEntity;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from specialty, first name and last name to the vets having
+ * them, one {@link BitSet} of vet ids per value. Lookups on exact values are answered by
+ * intersecting those bitsets, without calling the embedding model. Only the ids of the
+ * vets are held, the documents of the matching vets are read from the database.
+ * <p>
+ * The index is built by the {@link VectorStoreController} in the background on startup,
+ * and kept up to date by the {@link VetIndexer}.
+ */
+@Component
+public class VetIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(VetIndex.class);
+
+	private static final int READ_SIZE = 500;
+
+	private final VetRepository vetRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<String, BitSet> bySpecialty = new HashMap<>();
+
+	private final Map<String, BitSet> byFirstName = new HashMap<>();
+
+	private final Map<String, BitSet> byLastName = new HashMap<>();
+
+	// Indexed values of each vet, to remove them when it changes
+	private final Map<Integer, IndexedVet> vets = new HashMap<>();
+
+	private final BitSet all = new BitSet();
+
+	private volatile boolean ready;
+
+	public VetIndex(VetRepository vetRepository) {
+		this.vetRepository = vetRepository;
+	}
+
+	/**
+	 * Index all the vets, lookups are not answered until this is done.
+	 */
+	public void build() {
+		int lastId = 0;
+		List<Vet> chunk;
+		do {
+			chunk = this.vetRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(READ_SIZE));
+			update(chunk);
+			if (!chunk.isEmpty()) {
+				lastId = chunk.get(chunk.size() - 1).getId();
+			}
+		}
+		while (chunk.size() == READ_SIZE);
+		this.ready = true;
+		logger.info("Vet index built with {} vets and {} specialties", this.vets.size(), this.bySpecialty.size());
+	}
+
+	/**
+	 * Add the given vets to the index, or replace them if they were already indexed.
+	 */
+	public void update(Collection<Vet> changed) {
+		this.lock.writeLock().lock();
+		try {
+			for (Vet vet : changed) {
+				remove(vet.getId());
+				IndexedVet indexed = new IndexedVet(key(vet.getFirstName()), key(vet.getLastName()),
+						vet.getSpecialties().stream().map(NamedEntity::getName).map(VetIndex::key).toList());
+				this.vets.put(vet.getId(), indexed);
+				this.all.set(vet.getId());
+				add(this.byFirstName, indexed.firstName(), vet.getId());
+				add(this.byLastName, indexed.lastName(), vet.getId());
+				indexed.specialties().forEach(specialty -> add(this.bySpecialty, specialty, vet.getId()));
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Collection<Integer> vetIds) {
+		this.lock.writeLock().lock();
+		try {
+			vetIds.forEach(this::remove);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Find the vets matching all the names and specialties set on the given criteria.
+	 * Returns an empty optional when the lookup cannot be answered exactly, that is when
+	 * the index is not built yet or when a value is not known to the index, which usually
+	 * means it is misspelled or paraphrased and needs a similarity search.
+	 * @param criteria the vet to match, {@code null} to match all vets
+	 * @param limit the maximum number of vets returned
+	 */
+	public Optional<List<String>> find(Vet criteria, int limit) {
+		if (!this.ready) {
+			return Optional.empty();
+		}
+		List<Integer> found = new ArrayList<>();
+		this.lock.readLock().lock();
+		try {
+			BitSet matches = (BitSet) this.all.clone();
+			if (criteria != null) {
+				boolean known = intersect(matches, this.byFirstName, criteria.getFirstName())
+						&& intersect(matches, this.byLastName, criteria.getLastName());
+				for (Specialty specialty : criteria.getSpecialties()) {
+					known = known && intersect(matches, this.bySpecialty, specialty.getName());
+				}
+				if (!known) {
+					return Optional.empty();
+				}
+			}
+			for (int id = matches.nextSetBit(0); id >= 0 && found.size() < limit; id = matches.nextSetBit(id + 1)) {
+				found.add(id);
+			}
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+		if (found.isEmpty()) {
+			return Optional.of(List.of());
+		}
+		// In id order, a vet deleted meanwhile is left out
+		return Optional.of(this.vetRepository.findByIdIn(found)
+			.stream()
+			.sorted(Comparator.comparing(Vet::getId))
+			.map(vet -> VetDocuments.toDocument(vet).getText())
+			.toList());
+	}
+
+	// A blank value matches every vet, returns false for a value unknown to the index
+	private static boolean intersect(BitSet matches, Map<String, BitSet> index, String value) {
+		if (!StringUtils.hasText(value)) {
+			return true;
+		}
+		BitSet vetIds = index.get(key(value));
+		if (vetIds == null) {
+			return false;
+		}
+		matches.and(vetIds);
+		return true;
+	}
+
+	private void remove(Integer vetId) {
+		IndexedVet previous = this.vets.remove(vetId);
+		if (previous != null) {
+			this.all.clear(vetId);
+			clear(this.byFirstName, previous.firstName(), vetId);
+			clear(this.byLastName, previous.lastName(), vetId);
+			previous.specialties().forEach(specialty -> clear(this.bySpecialty, specialty, vetId));
+		}
+	}
+
+	private static void add(Map<String, BitSet> index, String key, int vetId) {
+		if (key != null) {
+			index.computeIfAbsent(key, k -> new BitSet()).set(vetId);
+		}
+	}
+
+	private static void clear(Map<String, BitSet> index, String key, int vetId) {
+		BitSet vetIds = (key != null) ? index.get(key) : null;
+		if (vetIds != null) {
+			vetIds.clear(vetId);
+			if (vetIds.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	private static String key(String value) {
+		return StringUtils.hasText(value) ? value.trim().toLowerCase(Locale.ROOT) : null;
+	}
+
+	private record IndexedVet(String firstName, String lastName, List<String> specialties) {
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the vector store and the {@link VetIndex} in sync with the vets as they change,
+ * re-embedding only the affected vets. Changes are collected until none has been reported
+ * for the configured delay, then applied in one batch, so that a burst of updates costs a
+ * single call to the embedding model. Changes are held back while the vector store is
+ * loading, the load would replace them.
+ *
+ * @see VetChangeListener
+ */
+@Component
+public class VetIndexer implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(VetIndexer.class);
+
+	private final VectorStore vectorStore;
+
+	private final VetRepository vetRepository;
+
+	private final VetIndex vetIndex;
+
+	private final VectorStoreController vectorStoreController;
+
+	private final long delayNanos;
+
+	// Upper bound on how long a change waits while new ones keep coming
+	private final long maxDelayNanos;
+
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "vet-indexer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Object lock = new Object();
+
+	private Set<Integer> changedVets = new HashSet<>();
+
+	private Set<Integer> changedSpecialties = new HashSet<>();
+
+	private long firstChangeNanos;
+
+	private ScheduledFuture<?> scheduledFlush;
+
+	public VetIndexer(VectorStore vectorStore, VetRepository vetRepository, VetIndex vetIndex,
+			VectorStoreController vectorStoreController,
+			@Value("${petclinic.ai.vectorstore.reindex-delay:2s}") Duration delay) {
+		this.vectorStore = vectorStore;
+		this.vetRepository = vetRepository;
+		this.vetIndex = vetIndex;
+		this.vectorStoreController = vectorStoreController;
+		this.delayNanos = delay.toNanos();
+		this.maxDelayNanos = delay.multipliedBy(10).toNanos();
+	}
+
+	/**
+	 * Schedule the given vets to be re-embedded, or removed if they no longer exist.
+	 */
+	public void vetsChanged(Collection<Integer> vetIds) {
+		synchronized (this.lock) {
+			this.changedVets.addAll(vetIds);
+			scheduleFlush();
+		}
+	}
+
+	/**
+	 * Schedule the vets having one of the given specialties to be re-embedded.
+	 */
+	public void specialtiesChanged(Collection<Integer> specialtyIds) {
+		synchronized (this.lock) {
+			this.changedSpecialties.addAll(specialtyIds);
+			scheduleFlush();
+		}
+	}
+
+	private void scheduleFlush() {
+		long now = System.nanoTime();
+		if (this.scheduledFlush == null) {
+			this.firstChangeNanos = now;
+		}
+		else {
+			this.scheduledFlush.cancel(false);
+		}
+		long delay = Math.min(this.delayNanos, this.firstChangeNanos + this.maxDelayNanos - now);
+		this.scheduledFlush = this.executor.schedule(this::flush, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+	}
+
+	void flush() {
+		Set<Integer> vetIds;
+		Set<Integer> specialtyIds;
+		synchronized (this.lock) {
+			if (this.vectorStoreController.getState() != State.READY) {
+				// Held until the load is done, it would replace the changes
+				this.scheduledFlush = this.executor.schedule(this::flush, this.delayNanos, TimeUnit.NANOSECONDS);
+				return;
+			}
+			vetIds = this.changedVets;
+			specialtyIds = this.changedSpecialties;
+			this.changedVets = new HashSet<>();
+			this.changedSpecialties = new HashSet<>();
+			this.scheduledFlush = null;
+		}
+		if (vetIds.isEmpty() && specialtyIds.isEmpty()) {
+			return;
+		}
+		try {
+			if (!specialtyIds.isEmpty()) {
+				vetIds.addAll(this.vetRepository.findIdsBySpecialtyIdIn(specialtyIds));
+			}
+			Collection<Vet> vets = this.vetRepository.findByIdIn(vetIds);
+			this.vetIndex.update(vets);
+			List<Document> documents = new ArrayList<>(vets.size());
+			for (Vet vet : vets) {
+				documents.add(VetDocuments.toDocument(vet));
+				vetIds.remove(vet.getId());
+			}
+			// Whatever was not found has been deleted
+			if (!vetIds.isEmpty()) {
+				this.vetIndex.remove(vetIds);
+				this.vectorStore.delete(vetIds.stream().map(VetDocuments::id).toList());
+			}
+			if (!documents.isEmpty()) {
+				this.vectorStore.add(documents);
+			}
+			logger.info("Vector store updated with {} vets and {} removed", documents.size(), vetIds.size());
+		}
+		catch (RuntimeException ex) {
+			logger.error("Could not update the vector store for vets {} and specialties {}", vetIds, specialtyIds, ex);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		this.executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads all vets into the vector store in three stages: vets are read from the database
+ * in chunks by a {@link VetDocumentReader}, grouped into batches and embedded in batches
+ * with a bounded number of batches in flight, and written to the store as each batch
+ * completes. Memory use does not depend on the number of vets.
+ * <p>
+ * When the store is a {@link PersistentVectorStore} and a snapshot file is given, the
+ * store is saved to it every few batches along with a checkpoint holding the id of the
+ * last vet known to be stored, so that an interrupted run can be resumed from there.
+ */
+@Component
+public class VetIngestionPipeline {
+
+	private static final Logger logger = LoggerFactory.getLogger(VetIngestionPipeline.class);
+
+	static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+	private final VectorStore vectorStore;
+
+	private final VetRepository vetRepository;
+
+	private final int readSize;
+
+	private final int batchSize;
+
+	private final int maxInFlight;
+
+	private final int checkpointInterval;
+
+	public VetIngestionPipeline(VectorStore vectorStore, VetRepository vetRepository,
+			@Value("${petclinic.ai.ingestion.read-size:500}") int readSize,
+			@Value("${petclinic.ai.ingestion.batch-size:100}") int batchSize,
+			@Value("${petclinic.ai.ingestion.max-in-flight:4}") int maxInFlight,
+			@Value("${petclinic.ai.ingestion.checkpoint-interval:20}") int checkpointInterval) {
+		this.vectorStore = vectorStore;
+		this.vetRepository = vetRepository;
+		this.readSize = readSize;
+		this.batchSize = batchSize;
+		this.maxInFlight = maxInFlight;
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Return the id of the last vet stored by an interrupted run that saved to the given
+	 * snapshot, or {@code null} if the run completed.
+	 */
+	public static Integer checkpoint(File snapshot) throws IOException {
+		Path checkpoint = checkpointFile(snapshot);
+		if (!Files.exists(checkpoint)) {
+			return null;
+		}
+		return Integer.valueOf(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+	}
+
+	/**
+	 * Add the vets with an id greater than the given one to the vector store.
+	 * @param afterId the id of the last vet already stored, 0 to start from the beginning
+	 * @param snapshot where to save the store, or {@code null} to keep it in memory only
+	 * @return the number of vets added
+	 */
+	public int ingest(int afterId, File snapshot) throws IOException, InterruptedException {
+		PersistentVectorStore persistentStore = (snapshot != null
+				&& this.vectorStore instanceof PersistentVectorStore persistent) ? persistent : null;
+		Progress progress = new Progress(afterId, this.vetRepository.countVets());
+		AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		Semaphore permits = new Semaphore(this.maxInFlight);
+		ExecutorService executor = Executors.newFixedThreadPool(this.maxInFlight, runnable -> {
+			Thread thread = new Thread(runnable, "vet-ingestion");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			long sequence = 0;
+			Iterator<Document> documents = new VetDocumentReader(this.vetRepository, afterId, this.readSize).stream()
+				.iterator();
+			while (documents.hasNext() && failure.get() == null) {
+				List<Document> batch = new ArrayList<>(this.batchSize);
+				while (batch.size() < this.batchSize && documents.hasNext()) {
+					batch.add(documents.next());
+				}
+				long batchSequence = sequence++;
+				int batchLastId = (Integer) batch.get(batch.size() - 1).getMetadata().get(VetDocuments.VET_ID);
+				// Blocks the reader while maxInFlight batches are being embedded
+				permits.acquire();
+				executor.execute(() -> {
+					try {
+						this.vectorStore.add(batch);
+						progress.completed(batchSequence, batchLastId, batch.size());
+					}
+					catch (RuntimeException ex) {
+						failure.compareAndSet(null, ex);
+					}
+					finally {
+						permits.release();
+					}
+				});
+				if (persistentStore != null && sequence % this.checkpointInterval == 0) {
+					checkpoint(persistentStore, snapshot, progress.watermark());
+				}
+			}
+			// Wait for the batches still in flight
+			permits.acquire(this.maxInFlight);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		if (failure.get() != null) {
+			if (persistentStore != null) {
+				checkpoint(persistentStore, snapshot, progress.watermark());
+			}
+			throw failure.get();
+		}
+		if (persistentStore != null) {
+			persistentStore.save(snapshot);
+			Files.deleteIfExists(checkpointFile(snapshot));
+		}
+		return progress.indexed.get();
+	}
+
+	/**
+	 * Bring the given store, loaded from a snapshot, up to date with the database. The
+	 * vets added or changed since the snapshot was written are embedded again, and the
+	 * vets that no longer exist are deleted.
+	 * @return the number of documents added, replaced or deleted
+	 */
+	public int reconcile(PersistentVectorStore store) {
+		Map<String, String> stored = store.textDigests();
+		List<Document> changed = new ArrayList<>(this.batchSize);
+		int count = 0;
+		Iterator<Document> documents = new VetDocumentReader(this.vetRepository, 0, this.readSize).stream().iterator();
+		while (documents.hasNext()) {
+			Document document = documents.next();
+			String digest = stored.remove(document.getId());
+			if (!EmbeddingCache.digest(document.getText()).equals(digest)) {
+				changed.add(document);
+			}
+			if (changed.size() == this.batchSize || (!documents.hasNext() && !changed.isEmpty())) {
+				store.add(changed);
+				count += changed.size();
+				changed = new ArrayList<>(this.batchSize);
+			}
+		}
+		// Whatever was not read has been deleted
+		if (!stored.isEmpty()) {
+			store.delete(new ArrayList<>(stored.keySet()));
+			count += stored.size();
+		}
+		return count;
+	}
+
+	private void checkpoint(PersistentVectorStore store, File snapshot, int watermark) throws IOException {
+		// The watermark is read before saving, so the snapshot holds at least those vets
+		store.save(snapshot);
+		Files.writeString(checkpointFile(snapshot), Integer.toString(watermark), StandardCharsets.UTF_8);
+		logger.info("Vector store checkpoint written to {} up to vet {}", snapshot, watermark);
+	}
+
+	private static Path checkpointFile(File snapshot) {
+		return Path.of(snapshot.getPath() + CHECKPOINT_SUFFIX);
+	}
+
+	/**
+	 * Tracks completed batches. Batches complete out of order, the watermark is the last
+	 * vet of the longest run of completed batches from the start.
+	 */
+	private static class Progress {
+
+		private final Map<Long, Integer> completed = new TreeMap<>();
+
+		private final AtomicInteger indexed = new AtomicInteger();
+
+		private final int total;
+
+		private long nextSequence;
+
+		private long batches;
+
+		private int watermark;
+
+		Progress(int afterId, int total) {
+			this.watermark = afterId;
+			this.total = total;
+		}
+
+		synchronized void completed(long sequence, int lastId, int count) {
+			this.completed.put(sequence, lastId);
+			while (this.completed.containsKey(this.nextSequence)) {
+				this.watermark = this.completed.remove(this.nextSequence++);
+			}
+			int done = this.indexed.addAndGet(count);
+			if (++this.batches % 10 == 0) {
+				logger.info("Indexed {} vets, {} in the database", done, this.total);
+			}
+		}
+
+		synchronized int watermark() {
+			return this.watermark;
+		}
+
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.Vets;
+
+import java.util.Map;
+
+/**
+ * Shared JSON writers of the clinic entities, for the serialization done outside of
+ * Spring MVC message conversion, such as the vet documents and tool arguments of the
+ * genai package.
+ * <p>
+ * Creating an {@code ObjectMapper} per call rebuilds its serializer caches every time.
+ * Here a single mapper is built once, and the writer of each entity type is resolved up
+ * front. The buffers used while writing are taken from a pool shared by all threads,
+ * which, unlike the default per-thread pool, keeps recycling them on virtual threads.
+ * Dates are written as ISO strings.
+ */
+public final class JsonWriters {
+
+	private static final JsonMapper MAPPER = JsonMapper
+		.builder(JsonFactory.builder().recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool()).build())
+		.findAndAddModules()
+		.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+		.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+		.build();
+
+	private static final Map<Class<?>, ObjectWriter> WRITERS = Map.of(Vet.class, MAPPER.writerFor(Vet.class),
+			Vets.class, MAPPER.writerFor(Vets.class), Owner.class, MAPPER.writerFor(Owner.class), Pet.class,
+			MAPPER.writerFor(Pet.class), Visit.class, MAPPER.writerFor(Visit.class));
+
+	private JsonWriters() {
+	}
+
+	/**
+	 * Return the writer of the given type, pre-resolved for the clinic entities.
+	 */
+	public static ObjectWriter writerFor(Class<?> type) {
+		ObjectWriter writer = WRITERS.get(type);
+		return (writer != null) ? writer : MAPPER.writerFor(type);
+	}
+
+}
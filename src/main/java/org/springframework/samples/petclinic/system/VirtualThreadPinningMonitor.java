@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, which happens on Java 21 when a
+ * virtual thread blocks inside a {@code synchronized} block or a native call, for
+ * instance in a JDBC driver or connection pool. A pinned virtual thread holds its carrier
+ * and defeats the purpose of virtual threads.
+ * <p>
+ * Pinning is observed through the {@code jdk.VirtualThreadPinned} JFR event. The first
+ * occurrence of each pinning site is logged with its stack, every occurrence is counted
+ * in the {@code jvm.threads.virtual.pinned} metric, and a summary per site is logged on
+ * shutdown.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean, MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+	static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	private static final int REPORTED_FRAMES = 12;
+
+	private final Duration threshold;
+
+	private final AtomicLong pinned = new AtomicLong();
+
+	// Occurrences per pinning site, the first application or library frame that blocked
+	private final Map<String, AtomicLong> sites = new ConcurrentHashMap<>();
+
+	private RecordingStream recordingStream;
+
+	public VirtualThreadPinningMonitor(
+			@Value("${petclinic.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+		this.threshold = threshold;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (Runtime.version().feature() < 21) {
+			logger.info("Virtual threads need Java 21, pinning is not monitored");
+			return;
+		}
+		this.recordingStream = new RecordingStream();
+		this.recordingStream.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+		this.recordingStream.onEvent(PINNED_EVENT, this::pinned);
+		this.recordingStream.startAsync();
+		logger.info("Reporting virtual threads pinned for more than {}", this.threshold);
+	}
+
+	void pinned(RecordedEvent event) {
+		this.pinned.incrementAndGet();
+		RecordedStackTrace stackTrace = event.getStackTrace();
+		String site = (stackTrace != null) ? site(stackTrace) : "unknown";
+		AtomicLong count = this.sites.computeIfAbsent(site, key -> new AtomicLong());
+		if (count.getAndIncrement() == 0) {
+			logger.warn("Virtual thread {} pinned for {} at {}:{}", event.getThread("eventThread").getJavaName(),
+					event.getDuration(), site, (stackTrace != null) ? stack(stackTrace) : "");
+		}
+	}
+
+	/**
+	 * Number of times a virtual thread was pinned for longer than the threshold, by
+	 * pinning site.
+	 */
+	public Map<String, Long> getPinningSites() {
+		return this.sites.entrySet()
+			.stream()
+			.collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("jvm.threads.virtual.pinned", this.pinned, AtomicLong::get)
+			.description("Virtual threads pinned to their carrier for longer than the threshold")
+			.register(registry);
+	}
+
+	@Override
+	public void destroy() {
+		if (this.recordingStream != null) {
+			this.recordingStream.close();
+		}
+		if (!this.sites.isEmpty()) {
+			logger.info("Virtual threads were pinned {} times: {}", this.pinned.get(), getPinningSites());
+		}
+	}
+
+	// The innermost frame outside of the JDK, where the blocking call was made
+	private static String site(RecordedStackTrace stackTrace) {
+		for (RecordedFrame frame : stackTrace.getFrames()) {
+			String type = frame.getMethod().getType().getName();
+			if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+				return type + "." + frame.getMethod().getName();
+			}
+		}
+		return "jdk";
+	}
+
+	private static String stack(RecordedStackTrace stackTrace) {
+		return stackTrace.getFrames()
+			.stream()
+			.limit(REPORTED_FRAMES)
+			.map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+					+ frame.getLineNumber())
+			.collect(Collectors.joining());
+	}
+
+}
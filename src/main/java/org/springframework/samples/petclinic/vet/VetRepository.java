@@ -17,13 +17,16 @@ package org.springframework.samples.petclinic.vet;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Repository class for <code>Vet</code> domain objects All method names are compliant
@@ -63,4 +66,26 @@ public interface VetRepository extends Repository<Vet, Integer> {
 	@Cacheable("vets")
 	Page<Vet> findAll(Pageable pageable) throws DataAccessException;
 
+	/**
+	 * Retrieve <code>Vet</code>s in id order, starting after the given id. Used to walk
+	 * the whole table in chunks without holding it in memory.
+	 */
+	@Transactional(readOnly = true)
+	List<Vet> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit) throws DataAccessException;
+
+	/**
+	 * Retrieve the <code>Vet</code>s with the given ids, ids that do not exist are
+	 * ignored.
+	 */
+	@Transactional(readOnly = true)
+	Collection<Vet> findByIdIn(Collection<Integer> ids) throws DataAccessException;
+
+	/**
+	 * Retrieve the ids of the <code>Vet</code>s having one of the given specialties.
+	 */
+	@Transactional(readOnly = true)
+	@Query("SELECT DISTINCT vet.id FROM Vet vet JOIN vet.specialties specialty WHERE specialty.id IN :specialtyIds")
+	Collection<Integer> findIdsBySpecialtyIdIn(@Param("specialtyIds") Collection<Integer> specialtyIds)
+			throws DataAccessException;
+
 }
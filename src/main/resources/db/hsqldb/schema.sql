@@ -42,6 +42,8 @@ CREATE TABLE owners (
   telephone  VARCHAR(20)
 );
 CREATE INDEX owners_last_name ON owners (last_name);
+CREATE INDEX owners_city ON owners (city);
+CREATE INDEX owners_telephone ON owners (telephone);
 
 CREATE TABLE pets (
   id         INTEGER IDENTITY PRIMARY KEY,
@@ -32,6 +32,8 @@ CREATE TABLE IF NOT EXISTS owners (
   telephone  TEXT
 );
 CREATE INDEX ON owners (last_name);
+CREATE INDEX ON owners (city);
+CREATE INDEX ON owners (telephone);
 
 CREATE TABLE IF NOT EXISTS pets (
   id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -15,6 +15,7 @@ function appendMessage(message, type) {
 
     // Scroll to the bottom of the chatbox to show the latest message
     chatMessages.scrollTop = chatMessages.scrollHeight;
+    return messageElement;
 }
 
 function toggleChatbox() {
@@ -42,20 +43,60 @@ function sendMessage() {
     // Display user message in the chatbox
     appendMessage(query, 'user');
 
-    // Send the message to the backend
-    fetch('/chat', {
+    // Send the message to the backend, the answer is displayed as it streams in
+    const messageElement = appendMessage('', 'bot');
+    streamAnswer(query, messageElement)
+        .catch(error => console.error('Error:', error));
+}
+
+async function streamAnswer(query, messageElement) {
+    const chatMessages = document.getElementById('chatbox-messages');
+    const response = await fetch('/chat/stream', {
         method: 'POST',
         headers: {
             'Content-Type': 'application/json',
+            'Accept': 'text/event-stream',
         },
         body: JSON.stringify(query),
-    })
-        .then(response => response.text())
-        .then(responseText => {
-            // Display the response from the server in the chatbox
-            appendMessage(responseText, 'bot');
-        })
-        .catch(error => console.error('Error:', error));
+    });
+
+    let answer = '';
+    let renderPending = false;
+    const render = () => {
+        renderPending = false;
+        // Markdown is parsed again on the whole answer, so that lists and
+        // emphasis split across chunks render correctly
+        messageElement.innerHTML = marked.parse(answer);
+        chatMessages.scrollTop = chatMessages.scrollHeight;
+    };
+
+    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+    let buffer = '';
+    while (true) {
+        const { value, done } = await reader.read();
+        if (done) {
+            break;
+        }
+        // Server-sent events are separated by a blank line, the last one may be incomplete
+        buffer += value;
+        const events = buffer.split(/\r?\n\r?\n/);
+        buffer = events.pop();
+        for (const event of events) {
+            const data = event.split(/\r?\n/)
+                .filter(line => line.startsWith('data:'))
+                .map(line => line.slice(5))
+                .join('\n');
+            if (data) {
+                answer += JSON.parse(data).text;
+            }
+        }
+        // Render at most once per frame however fast the chunks arrive
+        if (!renderPending) {
+            renderPending = true;
+            requestAnimationFrame(render);
+        }
+    }
+    render();
 }
 
 function handleKeyPress(event) {
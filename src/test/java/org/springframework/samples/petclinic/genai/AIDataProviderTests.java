@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.samples.petclinic.genai.AIDataProvider.OwnerPage;
+import org.springframework.samples.petclinic.genai.AIDataProvider.OwnerSearch;
+import org.springframework.samples.petclinic.model.Person;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+
+/**
+ * Test class for the owner search of {@link AIDataProvider}
+ */
+@DataJpaTest
+class AIDataProviderTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	private AIDataProvider dataProvider;
+
+	@BeforeEach
+	void setup() {
+		this.dataProvider = new AIDataProvider(this.owners, null, null, new ChatMetrics(new SimpleMeterRegistry()));
+	}
+
+	@Test
+	void shouldCombineCriteria() {
+		assertThat(lastNames(new OwnerSearch("dav", null, null, null, null))).containsExactly("Davis", "Davis");
+		assertThat(lastNames(new OwnerSearch("Davis", "Windsor", null, null, null))).containsExactly("Davis");
+		assertThat(lastNames(new OwnerSearch(null, null, "6085557683", null, null))).containsExactly("Escobito");
+		assertThat(lastNames(new OwnerSearch(null, "Madison", null, "Mul", null))).containsExactly("Escobito");
+		assertThat(lastNames(new OwnerSearch(null, null, null, "Lucky", null))).containsExactly("Black", "Estaban");
+		assertThat(lastNames(new OwnerSearch(null, null, null, null, 3))).containsExactly("Rodriquez");
+		assertThat(lastNames(new OwnerSearch("%", null, null, null, null))).isEmpty();
+	}
+
+	@Test
+	void shouldPageWithCursor() {
+		for (int i = 0; i < 25; i++) {
+			Owner owner = new Owner();
+			owner.setFirstName("First" + i);
+			owner.setLastName("Page");
+			owner.setAddress("1 Main St.");
+			owner.setCity("Verona");
+			owner.setTelephone("6085550000");
+			this.owners.save(owner);
+		}
+		OwnerSearch search = new OwnerSearch("Page", null, null, null, null);
+
+		OwnerPage first = this.dataProvider.findOwners(search, null);
+		assertThat(first.owners()).hasSize(AIDataProvider.OWNER_PAGE_SIZE);
+		assertThat(first.nextCursor()).isEqualTo(first.owners().get(AIDataProvider.OWNER_PAGE_SIZE - 1).getId());
+
+		OwnerPage last = this.dataProvider.findOwners(search, first.nextCursor());
+		assertThat(last.owners()).hasSize(5).allMatch(owner -> owner.getId() > first.nextCursor());
+		assertThat(last.nextCursor()).isNull();
+		assertThat(this.dataProvider.findOwners(null, null).owners()).hasSize(AIDataProvider.OWNER_PAGE_SIZE);
+	}
+
+	private List<String> lastNames(OwnerSearch search) {
+		return this.dataProvider.findOwners(search, null).owners().stream().map(Person::getLastName).toList();
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Test class for {@link BoundedChatMemoryRepository}
+ */
+class BoundedChatMemoryRepositoryTests {
+
+	private Instant now = Instant.parse("2025-01-01T10:00:00Z");
+
+	private final Clock clock = new Clock() {
+
+		@Override
+		public Instant instant() {
+			return BoundedChatMemoryRepositoryTests.this.now;
+		}
+
+		@Override
+		public ZoneOffset getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+	};
+
+	@Test
+	void shouldKeepConversationsApart() {
+		BoundedChatMemoryRepository repository = new BoundedChatMemoryRepository(DataSize.ofMegabytes(1),
+				Duration.ofMinutes(30), this.clock);
+
+		repository.saveAll("alice", exchange("Which vets do dentistry?"));
+		repository.saveAll("bob", exchange("List the owners"));
+
+		assertThat(repository.findByConversationId("alice")).extracting(Message::getText)
+			.contains("Which vets do dentistry?")
+			.doesNotContain("List the owners");
+		assertThat(repository.findConversationIds()).containsExactlyInAnyOrder("alice", "bob");
+		repository.deleteByConversationId("bob");
+		assertThat(repository.stats()[0]).isEqualTo(1);
+	}
+
+	@Test
+	void shouldEvictLeastRecentlyUsedConversationsBeyondBudget() {
+		// Room for two conversations of one exchange each
+		BoundedChatMemoryRepository repository = new BoundedChatMemoryRepository(DataSize.ofBytes(700),
+				Duration.ofMinutes(30), this.clock);
+
+		repository.saveAll("alice", exchange("Hello"));
+		repository.saveAll("bob", exchange("Hello"));
+		repository.findByConversationId("alice");
+		repository.saveAll("carol", exchange("Hello"));
+
+		assertThat(repository.findConversationIds()).containsExactlyInAnyOrder("alice", "carol");
+		assertThat(repository.stats()[1]).isLessThanOrEqualTo(700);
+	}
+
+	@Test
+	void shouldEvictIdleConversations() {
+		BoundedChatMemoryRepository repository = new BoundedChatMemoryRepository(DataSize.ofMegabytes(1),
+				Duration.ofMinutes(30), this.clock);
+		repository.saveAll("alice", exchange("Hello"));
+		this.now = this.now.plus(Duration.ofMinutes(20));
+		repository.saveAll("bob", exchange("Hello"));
+
+		this.now = this.now.plus(Duration.ofMinutes(15));
+
+		assertThat(repository.findByConversationId("alice")).isEmpty();
+		assertThat(repository.findConversationIds()).containsExactly("bob");
+		assertThat(repository.stats()[1]).isPositive();
+	}
+
+	private static List<Message> exchange(String question) {
+		return List.of(new UserMessage(question), new AssistantMessage("Sure, here it is."));
+	}
+
+}
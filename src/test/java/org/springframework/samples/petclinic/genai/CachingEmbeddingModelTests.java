@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.samples.petclinic.genai.SnapshotVectorStoreTests.KeywordEmbeddingModel;
+
+/**
+ * Test class for {@link CachingEmbeddingModel}
+ */
+class CachingEmbeddingModelTests {
+
+	private final BatchingStrategy batchingStrategy = new TokenCountBatchingStrategy();
+
+	private final RecordingEmbeddingModel delegate = new RecordingEmbeddingModel();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void shouldOnlyEmbedNewOrChangedTextAcrossRestarts() {
+		Document carter = new Document("vet-1", "Carter, radiology", Map.of());
+		Document leary = new Document("vet-2", "Leary, surgery", Map.of());
+		new CachingEmbeddingModel(this.delegate, new EmbeddingCache("model", this.directory.toString(), 10))
+			.embed(List.of(carter, leary), EmbeddingOptions.builder().build(), this.batchingStrategy);
+
+		// A fresh cache on the same directory, as after a restart
+		EmbeddingCache cache = new EmbeddingCache("model", this.directory.toString(), 10);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		cache.bindTo(registry);
+		Document changed = new Document("vet-2", "Leary, dentistry", Map.of());
+		List<float[]> embeddings = new CachingEmbeddingModel(this.delegate, cache).embed(List.of(carter, changed),
+				EmbeddingOptions.builder().build(), this.batchingStrategy);
+
+		assertThat(this.delegate.embedded).containsExactly("Carter, radiology", "Leary, surgery", "Leary, dentistry");
+		assertThat(embeddings.get(0)).containsExactly(0, 1, 0, 0.1f);
+		assertThat(embeddings.get(1)).containsExactly(1, 0, 0, 0.1f);
+		assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+		assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldNotShareEmbeddingsBetweenModels() {
+		Document carter = new Document("vet-1", "Carter, radiology", Map.of());
+		new CachingEmbeddingModel(this.delegate, new EmbeddingCache("model", this.directory.toString(), 10))
+			.embed(carter);
+		new CachingEmbeddingModel(this.delegate, new EmbeddingCache("other-model", this.directory.toString(), 10))
+			.embed(carter);
+
+		assertThat(this.delegate.embedded).hasSize(2);
+	}
+
+	@Test
+	void shouldNotShareEmbeddingsBetweenModelsOfTheSameName() {
+		Document carter = new Document("vet-1", "Carter, radiology", Map.of());
+		EmbeddingCache cache = new EmbeddingCache("model", this.directory.toString(), 10);
+		new CachingEmbeddingModel(this.delegate, cache).embed(carter);
+		HashEmbeddingModel standIn = new HashEmbeddingModel(8);
+
+		assertThat(new CachingEmbeddingModel(standIn, cache).embed(carter)).hasSize(8);
+	}
+
+	static class RecordingEmbeddingModel extends KeywordEmbeddingModel {
+
+		private final List<String> embedded = new ArrayList<>();
+
+		@Override
+		public float[] embed(String text) {
+			this.embedded.add(text);
+			return super.embed(text);
+		}
+
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives {@code /chat} of an application running with the {@code offline} profile from
+ * concurrent clients, each sending its next question once it got the previous answer, and
+ * reports the throughput and the latency percentiles. The time spent waiting for the
+ * model, reported by the {@link OfflineModelConfiguration#PROVIDER_TIME_HEADER} header,
+ * is subtracted from the latency of each request to report the overhead of the
+ * application alone: advisors, chat memory, tools and vector search.
+ * <p>
+ * Questions are numbered so that the response cache does not answer them.
+ * <p>
+ * Usage: {@code ChatLoadHarness <base url> [requests] [concurrency]}
+ */
+public final class ChatLoadHarness {
+
+	private static final List<String> QUESTIONS = List.of("Which vets do dentistry?", "Who is a radiologist?",
+			"List the owners and their pets", "Which vets do surgery, and which owners have a cat?",
+			"What are your opening hours?");
+
+	private final HttpClient client = HttpClient.newBuilder()
+		.version(HttpClient.Version.HTTP_1_1)
+		.connectTimeout(Duration.ofSeconds(10))
+		.build();
+
+	private final URI chat;
+
+	ChatLoadHarness(URI baseUri) {
+		this.chat = baseUri.resolve("/chat");
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: ChatLoadHarness <base url> [requests] [concurrency]");
+			System.exit(1);
+		}
+		int requests = (args.length > 1) ? Integer.parseInt(args[1]) : 500;
+		int concurrency = (args.length > 2) ? Integer.parseInt(args[2]) : 16;
+		new ChatLoadHarness(URI.create(args[0])).run(requests, concurrency).print(System.out);
+	}
+
+	Report run(int requests, int concurrency) throws Exception {
+		long[] latencies = new long[requests];
+		long[] providerTimes = new long[requests];
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger errors = new AtomicInteger();
+		ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+		long start = System.nanoTime();
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int i = 0; i < concurrency; i++) {
+				workers.add(clients.submit(() -> {
+					for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+						if (!send(n, latencies, providerTimes)) {
+							errors.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		}
+		finally {
+			clients.shutdownNow();
+		}
+		return new Report(requests, concurrency, System.nanoTime() - start, errors.get(), latencies, providerTimes);
+	}
+
+	private boolean send(int n, long[] latencies, long[] providerTimes) throws InterruptedException {
+		String question = QUESTIONS.get(n % QUESTIONS.size()) + " (question " + n + ")";
+		HttpRequest request = HttpRequest.newBuilder(this.chat)
+			.header("Content-Type", "application/json")
+			.timeout(Duration.ofMinutes(2))
+			.POST(BodyPublishers.ofString("\"" + question + "\""))
+			.build();
+		long start = System.nanoTime();
+		try {
+			HttpResponse<String> response = this.client.send(request, BodyHandlers.ofString());
+			latencies[n] = System.nanoTime() - start;
+			providerTimes[n] = response.headers()
+				.firstValueAsLong(OfflineModelConfiguration.PROVIDER_TIME_HEADER)
+				.orElse(0) * 1000;
+			return response.statusCode() == 200;
+		}
+		catch (IOException ex) {
+			latencies[n] = System.nanoTime() - start;
+			return false;
+		}
+	}
+
+	record Report(int requests, int concurrency, long elapsedNanos, int errors, long[] latencies,
+			long[] providerTimes) {
+
+		double throughput() {
+			return this.requests / (this.elapsedNanos / 1e9);
+		}
+
+		/**
+		 * Latency minus the time spent waiting for the model, per request.
+		 */
+		long[] overheads() {
+			long[] overheads = new long[this.requests];
+			for (int i = 0; i < this.requests; i++) {
+				overheads[i] = Math.max(0, this.latencies[i] - this.providerTimes[i]);
+			}
+			return overheads;
+		}
+
+		void print(PrintStream out) {
+			out.printf("%d requests, %d concurrent clients, %.1f s, %.1f requests/s, %d errors%n", this.requests,
+					this.concurrency, this.elapsedNanos / 1e9, throughput(), this.errors);
+			out.printf("%-10s %10s %10s %10s %10s%n", "ms", "p50", "p90", "p99", "max");
+			printRow(out, "latency", this.latencies);
+			printRow(out, "provider", this.providerTimes);
+			printRow(out, "overhead", overheads());
+		}
+
+		private static void printRow(PrintStream out, String name, long[] nanos) {
+			out.printf("%-10s %10.1f %10.1f %10.1f %10.1f%n", name, percentile(nanos, 0.5) / 1e6,
+					percentile(nanos, 0.9) / 1e6, percentile(nanos, 0.99) / 1e6, percentile(nanos, 1) / 1e6);
+		}
+
+		static long percentile(long[] values, double percentile) {
+			long[] sorted = values.clone();
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(percentile * sorted.length) - 1;
+			return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+		}
+
+	}
+
+}
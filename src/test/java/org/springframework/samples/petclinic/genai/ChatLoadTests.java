@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Load test of {@code /chat} on virtual threads. The LLM answers after a fixed latency,
+ * and far more chats are sent at once than Tomcat has platform threads: on virtual
+ * threads they all wait for the LLM together instead of queueing for a thread. Only runs
+ * on Java 21 or later, i.e. in the {@code java21} build of the CI workflows.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = { "spring.threads.virtual.enabled=true", "server.tomcat.threads.max=" + ChatLoadTests.THREADS,
+				"petclinic.ai.response-cache.enabled=false", "petclinic.ai.single-flight.enabled=false",
+				"petclinic.ai.chat-bulkhead.max-concurrent=" + ChatLoadTests.CHATS })
+@EnabledForJreRange(min = JRE.JAVA_21)
+class ChatLoadTests {
+
+	static final int THREADS = 10;
+
+	static final int CHATS = 200;
+
+	private static final Duration LLM_LATENCY = Duration.ofMillis(250);
+
+	@LocalServerPort
+	int port;
+
+	@MockitoBean
+	private ChatModel chatModel;
+
+	@MockitoBean
+	private EmbeddingModel embeddingModel;
+
+	@MockitoBean
+	private VectorStoreController vectorStoreController;
+
+	@Test
+	void shouldServeMoreConcurrentChatsThanPlatformThreads() throws Exception {
+		given(this.vectorStoreController.getState()).willReturn(State.READY);
+		given(this.chatModel.call(any(Prompt.class))).willAnswer(invocation -> {
+			Thread.sleep(LLM_LATENCY.toMillis());
+			return new ChatResponse(List.of(new Generation(new AssistantMessage("Dr. Douglas"))));
+		});
+		HttpClient client = HttpClient.newHttpClient();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + "/chat"))
+			.header("Content-Type", "application/json")
+			.POST(BodyPublishers.ofString("\"Which vets do dentistry?\""))
+			.build();
+
+		long start = System.nanoTime();
+		List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, CHATS)
+			.mapToObj(i -> client.sendAsync(request, BodyHandlers.ofString()))
+			.toList();
+		for (CompletableFuture<HttpResponse<String>> response : responses) {
+			assertThat(response.get().statusCode()).isEqualTo(200);
+		}
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		// Platform threads would serve the chats in CHATS / THREADS rounds of LLM latency
+		Duration platformThreads = LLM_LATENCY.multipliedBy(CHATS / THREADS);
+		assertThat(elapsed).isLessThan(platformThreads.dividedBy(4));
+	}
+
+}
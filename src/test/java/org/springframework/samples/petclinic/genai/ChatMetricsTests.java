@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatRuntimeException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for {@link ChatMetrics}
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatMetricsTests {
+
+	@Mock
+	private ChatModel chatModel;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private ChatClient chatClient;
+
+	@BeforeEach
+	void setup() {
+		this.chatClient = ChatClient.builder(this.chatModel).defaultAdvisors(new ChatMetrics(this.registry)).build();
+	}
+
+	@Test
+	void shouldRecordCallsAndTokensPerModel() {
+		given(this.chatModel.call(any(Prompt.class))).willReturn(response("Dr. Leary", 120, 30))
+			.willThrow(new IllegalStateException("Rate limited"));
+
+		this.chatClient.prompt("Who does dentistry?").call().content();
+		assertThatRuntimeException().isThrownBy(() -> this.chatClient.prompt("Who does surgery?").call().content());
+
+		assertThat(timerCount("success", "gpt-4o-mini")).isEqualTo(1);
+		assertThat(timerCount("error", "unknown")).isEqualTo(1);
+		assertThat(tokens("prompt")).isEqualTo(120);
+		assertThat(tokens("completion")).isEqualTo(30);
+	}
+
+	@Test
+	void shouldRecordStreamsWithTheUsageOfTheLastChunk() {
+		given(this.chatModel.stream(any(Prompt.class)))
+			.willReturn(Flux.just(response("Dr. ", 0, 0), response("Leary", 120, 30)));
+
+		assertThat(this.chatClient.prompt("Who does dentistry?").stream().content().collectList().block())
+			.containsExactly("Dr. ", "Leary");
+
+		assertThat(timerCount("success", "gpt-4o-mini")).isEqualTo(1);
+		assertThat(tokens("completion")).isEqualTo(30);
+	}
+
+	private long timerCount(String outcome, String model) {
+		return this.registry.get("chat.model.calls").tag("outcome", outcome).tag("model", model).timer().count();
+	}
+
+	private double tokens(String type) {
+		return this.registry.get("chat.model.tokens").tag("type", type).counter().count();
+	}
+
+	private static ChatResponse response(String text, int promptTokens, int completionTokens) {
+		return ChatResponse.builder()
+			.generations(List.of(new Generation(new AssistantMessage(text))))
+			.metadata(ChatResponseMetadata.builder()
+				.model("gpt-4o-mini")
+				.usage(new DefaultUsage(promptTokens, completionTokens))
+				.build())
+			.build();
+	}
+
+}
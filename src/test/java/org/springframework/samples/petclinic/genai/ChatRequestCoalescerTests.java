@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+/**
+ * Test class for {@link ChatRequestCoalescer}
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatRequestCoalescerTests {
+
+	@Mock
+	private ChatModel chatModel;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final ChatMemory chatMemory = MessageWindowChatMemory.builder()
+		.chatMemoryRepository(new InMemoryChatMemoryRepository())
+		.build();
+
+	private final CountDownLatch answer = new CountDownLatch(1);
+
+	private final ChatRequestCoalescer coalescer = new ChatRequestCoalescer(true);
+
+	private ChatClient chatClient;
+
+	@BeforeEach
+	void setup() {
+		this.coalescer.bindTo(this.registry);
+		this.chatClient = ChatClient.builder(this.chatModel)
+			.defaultAdvisors(MessageChatMemoryAdvisor.builder(this.chatMemory).build(), this.coalescer)
+			.build();
+		lenient().when(this.chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+			assertThat(this.answer.await(10, TimeUnit.SECONDS)).isTrue();
+			return new ChatResponse(List.of(new Generation(new AssistantMessage("Dr. Douglas"))));
+		});
+	}
+
+	@Test
+	void shouldShareOneCallBetweenIdenticalQuestions() throws Exception {
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> ask("a", "Which vets do dentistry?"));
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> ask("b", "which vets do dentistry"));
+		awaitCoalesced(1);
+		this.answer.countDown();
+
+		assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("Dr. Douglas");
+		assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("Dr. Douglas");
+		verify(this.chatModel, times(1)).call(any(Prompt.class));
+		// Both conversations remember the question and the shared answer
+		assertThat(this.chatMemory.get("a")).hasSize(2);
+		assertThat(this.chatMemory.get("b")).hasSize(2);
+	}
+
+	@Test
+	void shouldNotShareAnswersOfTurnsThatWrote() throws Exception {
+		willAnswer(invocation -> {
+			assertThat(this.answer.await(10, TimeUnit.SECONDS)).isTrue();
+			// Like the addPetToOwner tool called by the LLM
+			this.coalescer.writeCalled();
+			return new ChatResponse(List.of(new Generation(new AssistantMessage("Rex was added"))));
+		}).given(this.chatModel).call(any(Prompt.class));
+
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> ask("a", "Add pet Rex to owner 3"));
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> ask("b", "Add pet Rex to owner 3"));
+		awaitCoalesced(1);
+		this.answer.countDown();
+
+		assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("Rex was added");
+		assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("Rex was added");
+		verify(this.chatModel, times(2)).call(any(Prompt.class));
+	}
+
+	@Test
+	void shouldNotShareCallsDependingOnConversation() throws Exception {
+		this.answer.countDown();
+		ask("a", "Hello");
+		ask("b", "Hello");
+
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> ask("a", "Which vets do dentistry?"));
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> ask("b", "Which vets do dentistry?"));
+		first.get(10, TimeUnit.SECONDS);
+		second.get(10, TimeUnit.SECONDS);
+
+		verify(this.chatModel, times(4)).call(any(Prompt.class));
+		assertThat(this.registry.get("chat.requests.coalesced").functionCounter().count()).isZero();
+	}
+
+	private String ask(String conversationId, String question) {
+		return this.chatClient.prompt()
+			.user(question)
+			.advisors(advisor -> advisor.param(ChatMemory.CONVERSATION_ID, conversationId))
+			.call()
+			.content();
+	}
+
+	private void awaitCoalesced(int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (this.registry.get("chat.requests.coalesced").functionCounter().count() < count
+				&& System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+}
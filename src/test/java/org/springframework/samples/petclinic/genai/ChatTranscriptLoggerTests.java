@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for {@link ChatTranscriptLogger}
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatTranscriptLoggerTests {
+
+	@Mock
+	private ChatModel chatModel;
+
+	private final List<String> transcripts = new CopyOnWriteArrayList<>();
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void shouldLogTruncatedTranscriptsInTheBackground() throws Exception {
+		given(this.chatModel.call(any(Prompt.class))).willReturn(response("Dr. Leary"));
+		ChatTranscriptLogger transcriptLogger = transcriptLogger(1.0, 10);
+		transcriptLogger.afterPropertiesSet();
+
+		chatClient(transcriptLogger).prompt()
+			.system("You are a friendly assistant")
+			.user("Who does dentistry?")
+			.call()
+			.content();
+		transcriptLogger.destroy();
+
+		assertThat(this.transcripts).singleElement()
+			.asString()
+			.contains("outcome=success", "tokens=120/30")
+			.contains("SYSTEM: You are a ... [18 more chars]")
+			.contains("USER: Who does d... [9 more chars]")
+			.endsWith("ASSISTANT: Dr. Leary");
+	}
+
+	@Test
+	void shouldLogStreamedAnswers() throws Exception {
+		given(this.chatModel.stream(any(Prompt.class)))
+			.willReturn(Flux.just(response("Dr. "), response("Helen "), response("Leary")));
+		ChatTranscriptLogger transcriptLogger = transcriptLogger(1.0, 10);
+		transcriptLogger.afterPropertiesSet();
+
+		chatClient(transcriptLogger).prompt("Who does radiology?").stream().content().blockLast();
+		transcriptLogger.destroy();
+
+		assertThat(this.transcripts).singleElement().asString().endsWith("ASSISTANT: Dr. Helen ... [5 more chars]");
+	}
+
+	@Test
+	void shouldOnlyLogSampledTurns() throws Exception {
+		given(this.chatModel.call(any(Prompt.class))).willReturn(response("Dr. Leary"));
+		ChatTranscriptLogger transcriptLogger = transcriptLogger(0, 10);
+		transcriptLogger.afterPropertiesSet();
+
+		chatClient(transcriptLogger).prompt("Who does dentistry?").call().content();
+		transcriptLogger.destroy();
+
+		assertThat(this.transcripts).isEmpty();
+	}
+
+	@Test
+	void shouldDropOldestTranscriptsWhenBehind() throws Exception {
+		given(this.chatModel.call(any(Prompt.class))).willReturn(response("Dr. Leary"));
+		ChatTranscriptLogger transcriptLogger = new ChatTranscriptLogger(1.0, 100, 2, this.transcripts::add);
+		transcriptLogger.bindTo(this.registry);
+		ChatClient chatClient = chatClient(transcriptLogger);
+
+		// Nothing is written until the background thread starts
+		for (String specialty : List.of("dentistry", "radiology", "surgery")) {
+			chatClient.prompt("Who does " + specialty + "?").call().content();
+		}
+		transcriptLogger.afterPropertiesSet();
+		transcriptLogger.destroy();
+
+		assertThat(this.transcripts).hasSize(2).noneMatch(transcript -> transcript.contains("dentistry"));
+		assertThat(this.registry.get("chat.transcripts").tag("result", "dropped").functionCounter().count())
+			.isEqualTo(1);
+	}
+
+	private ChatTranscriptLogger transcriptLogger(double sampleRate, int maxChars) {
+		return new ChatTranscriptLogger(sampleRate, maxChars, 16, this.transcripts::add);
+	}
+
+	private ChatClient chatClient(ChatTranscriptLogger transcriptLogger) {
+		return ChatClient.builder(this.chatModel).defaultAdvisors(transcriptLogger).build();
+	}
+
+	private static ChatResponse response(String text) {
+		return ChatResponse.builder()
+			.generations(List.of(new Generation(new AssistantMessage(text))))
+			.metadata(ChatResponseMetadata.builder().usage(new DefaultUsage(120, 30)).build())
+			.build();
+	}
+
+}
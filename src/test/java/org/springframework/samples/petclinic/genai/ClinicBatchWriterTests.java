@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.genai.ClinicBatchWriter.ItemResult;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.PetTypeRepository;
+
+/**
+ * Test class for {@link ClinicBatchWriter}
+ */
+@DataJpaTest
+class ClinicBatchWriterTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private PetTypeRepository types;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private ClinicBatchWriter batchWriter;
+
+	@BeforeEach
+	void setup() {
+		this.batchWriter = new ClinicBatchWriter(this.jdbcTemplate, this.owners, this.types,
+				Validation.buildDefaultValidatorFactory().getValidator());
+	}
+
+	@Test
+	void shouldAddValidPetsAndReportInvalidOnes() {
+		List<ItemResult> results = this.batchWriter.addPetsToOwner(1,
+				List.of(pet("Kitty", 1), pet("leo", 1), pet("Rex", 9), pet(null, 2), pet("Tom", 1), pet("tom", 1)));
+
+		assertThat(results).extracting(ItemResult::index).containsExactly(0, 1, 2, 3, 4, 5);
+		assertThat(results.get(0).id()).isNotNull();
+		assertThat(results.get(4).id()).isNotNull();
+		assertThat(results.get(1).errors()).containsExactly("name: is already in use");
+		assertThat(results.get(2).errors()).containsExactly("type: unknown pet type id");
+		assertThat(results.get(3).errors()).containsExactly("name: required");
+		assertThat(results.get(5).errors()).containsExactly("name: is already in use");
+		this.entityManager.clear();
+		assertThat(this.owners.findById(1).get().getPets()).extracting(Pet::getName)
+			.containsExactly("Kitty", "Leo", "Tom");
+		assertThat(this.batchWriter.addPetsToOwner(999, List.of(pet("Kitty", 1)))).singleElement()
+			.extracting(ItemResult::errors)
+			.isEqualTo(List.of("ownerId: no owner has this id"));
+	}
+
+	@Test
+	void shouldAddOwnersWithTheirPets() {
+		Owner family = owner("Sam", "Schultz", "4321000000");
+		family.getPets().add(pet("Buddy", 2));
+		family.getPets().add(pet("Whiskers", 1));
+
+		List<ItemResult> results = this.batchWriter
+			.addOwnersToPetclinic(List.of(family, owner("Jane", "Doe", "12345"), owner("John", "Doe", "4321000001")));
+
+		assertThat(results.get(0).errors()).isEmpty();
+		assertThat(results.get(1).id()).isNull();
+		assertThat(results.get(1).errors()).singleElement().asString().startsWith("telephone: ");
+		assertThat(results.get(2).errors()).isEmpty();
+		this.entityManager.clear();
+		assertThat(this.owners.findById(results.get(0).id()).get().getPets()).extracting(Pet::getName)
+			.containsExactly("Buddy", "Whiskers");
+		assertThat(this.owners.findById(results.get(2).id()).get().getLastName()).isEqualTo("Doe");
+	}
+
+	private static Pet pet(String name, int typeId) {
+		Pet pet = new Pet();
+		pet.setName(name);
+		pet.setBirthDate(LocalDate.of(2024, 5, 1));
+		PetType type = new PetType();
+		type.setId(typeId);
+		pet.setType(type);
+		return pet;
+	}
+
+	private static Owner owner(String firstName, String lastName, String telephone) {
+		Owner owner = new Owner();
+		owner.setFirstName(firstName);
+		owner.setLastName(lastName);
+		owner.setAddress("12 Elm St.");
+		owner.setCity("Madison");
+		owner.setTelephone(telephone);
+		return owner;
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.samples.petclinic.genai.HnswIndex.Scored;
+import org.springframework.samples.petclinic.genai.SnapshotVectorStoreTests.KeywordEmbeddingModel;
+
+/**
+ * Test class for {@link HnswIndex} and {@link HnswVectorStore}
+ */
+class HnswIndexTests {
+
+	private static final int DIMENSIONS = 32;
+
+	private final Random random = new Random(7);
+
+	private final List<float[]> vectors = new ArrayList<>();
+
+	private HnswIndex index;
+
+	@BeforeEach
+	void setup() {
+		this.index = new HnswIndex(16, 100, 1);
+		for (int i = 0; i < 2000; i++) {
+			float[] vector = HnswIndex.normalize(randomVector());
+			this.vectors.add(vector);
+			this.index.add(vector);
+		}
+	}
+
+	@Test
+	void shouldFindMostOfTheExactNeighbours() {
+		int k = 10;
+		int hits = 0;
+		int queries = 50;
+		for (int q = 0; q < queries; q++) {
+			float[] query = HnswIndex.normalize(randomVector());
+			Set<Integer> found = nodes(this.index.search(query, k, 64, node -> true));
+			hits += (int) exact(query, k).stream().filter(found::contains).count();
+		}
+		assertThat(hits / (double) (queries * k)).isGreaterThan(0.9);
+	}
+
+	@Test
+	void shouldNotReturnDeletedOrRejectedNodes() {
+		float[] query = this.vectors.get(5);
+		assertThat(this.index.search(query, 1, 64, node -> true).get(0).node()).isEqualTo(5);
+
+		this.index.markDeleted(5);
+		List<Scored> results = this.index.search(query, 10, 64, node -> node % 2 == 0);
+		assertThat(results).hasSize(10).allMatch(scored -> scored.node() != 5 && scored.node() % 2 == 0);
+	}
+
+	@Test
+	void shouldRestoreWrittenGraph() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		this.index.write(new DataOutputStream(bytes));
+		HnswIndex restored = HnswIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+				this.vectors, 16, 100, 1);
+
+		float[] query = HnswIndex.normalize(randomVector());
+		assertThat(restored.search(query, 10, 64, node -> true))
+			.isEqualTo(this.index.search(query, 10, 64, node -> true));
+	}
+
+	@Test
+	void shouldRejectGraphOfOtherVectors() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		this.index.write(new DataOutputStream(bytes));
+		List<float[]> others = new ArrayList<>(this.vectors);
+		others.set(7, HnswIndex.normalize(randomVector()));
+
+		assertThatIOException().isThrownBy(() -> HnswIndex
+			.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), others, 16, 100, 1));
+	}
+
+	@Test
+	void shouldSaveGraphNextToSnapshot(@TempDir Path directory) throws Exception {
+		HnswVectorStore store = HnswVectorStore.builder(new KeywordEmbeddingModel()).build();
+		store.add(List.of(new Document("d", "dentistry", Map.of()), new Document("r", "radiology", Map.of())));
+		File file = directory.resolve("vectorstore.bin").toFile();
+
+		store.save(file);
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.map(path -> path.getFileName().toString())).containsExactlyInAnyOrder("vectorstore.bin",
+					"vectorstore.bin" + HnswVectorStore.GRAPH_SUFFIX);
+		}
+		HnswVectorStore reloaded = HnswVectorStore.builder(new KeywordEmbeddingModel()).build();
+		reloaded.load(new FileSystemResource(file));
+		assertThat(reloaded.similaritySearch(SearchRequest.builder().query("radiology").topK(1).build()))
+			.extracting(Document::getId)
+			.containsExactly("r");
+	}
+
+	@Test
+	void shouldCompactDeletedNodes() {
+		IntStream.range(0, 1000).forEach(this.index::markDeleted);
+		HnswIndex compacted = this.index.compact(1);
+
+		assertThat(compacted.size()).isEqualTo(1000);
+		float[] query = this.vectors.get(1500);
+		assertThat(compacted.search(query, 1, 64, node -> true).get(0).node()).isEqualTo(500);
+	}
+
+	private float[] randomVector() {
+		float[] vector = new float[DIMENSIONS];
+		for (int i = 0; i < DIMENSIONS; i++) {
+			vector[i] = (float) this.random.nextGaussian();
+		}
+		return vector;
+	}
+
+	private List<Integer> exact(float[] query, int k) {
+		return IntStream.range(0, this.vectors.size())
+			.boxed()
+			.sorted(Comparator.comparingDouble((Integer node) -> HnswIndex.dot(query, this.vectors.get(node)))
+				.reversed())
+			.limit(k)
+			.toList();
+	}
+
+	private static Set<Integer> nodes(List<Scored> results) {
+		Set<Integer> nodes = new HashSet<>();
+		results.forEach(scored -> nodes.add(scored.node()));
+		return nodes;
+	}
+
+}
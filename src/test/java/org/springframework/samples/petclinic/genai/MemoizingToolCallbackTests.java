@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Test class for {@link MemoizingToolCallback} and {@link ToolResultMemo}
+ */
+class MemoizingToolCallbackTests {
+
+	private final CountingTools tools = new CountingTools();
+
+	private final AtomicInteger writes = new AtomicInteger();
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void shouldReuseReadOnlyResultsWithinTurn() {
+		Map<String, ToolCallback> callbacks = callbacks(Duration.ZERO);
+
+		callbacks.get("listVets").call("{\"specialty\":\"dentistry\"}", turn("1"));
+		callbacks.get("listVets").call("{\"specialty\":\"dentistry\"}", turn("1"));
+		callbacks.get("listVets").call("{\"specialty\":\"surgery\"}", turn("1"));
+		assertThat(this.tools.reads).hasValue(2);
+
+		// Nothing is reused by the next turn without a time to live
+		callbacks.get("listVets").call("{\"specialty\":\"dentistry\"}", turn("2"));
+		assertThat(this.tools.reads).hasValue(3);
+		assertThat(
+				this.registry.get("chat.tool.calls").tag("tool", "listVets").tag("memoized", "false").timer().count())
+			.isEqualTo(3);
+		assertThat(this.registry.get("chat.tool.calls").tag("tool", "listVets").tag("memoized", "true").timer().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void shouldReuseReadOnlyResultsAcrossTurnsForTimeToLive() {
+		Map<String, ToolCallback> callbacks = callbacks(Duration.ofMinutes(1));
+
+		callbacks.get("listVets").call("{}", turn("1"));
+		callbacks.get("listVets").call("{}", turn("2"));
+		callbacks.get("listVets").call("{}");
+
+		assertThat(this.tools.reads).hasValue(1);
+	}
+
+	@Test
+	void shouldAlwaysCallWriteToolsAndForgetResults() {
+		Map<String, ToolCallback> callbacks = callbacks(Duration.ofMinutes(1));
+		callbacks.get("listVets").call("{}", turn("1"));
+
+		callbacks.get("addVet").call("{\"name\":\"Dr. Who\"}", turn("1"));
+		callbacks.get("addVet").call("{\"name\":\"Dr. Who\"}", turn("1"));
+		callbacks.get("listVets").call("{}", turn("1"));
+
+		assertThat(this.tools.writes).hasValue(2);
+		assertThat(this.writes).hasValue(2);
+		assertThat(this.tools.reads).hasValue(2);
+	}
+
+	private Map<String, ToolCallback> callbacks(Duration ttl) {
+		List<ToolCallback> callbacks = MemoizingToolCallback.of(this.tools, new ToolResultMemo(ttl, 10),
+				new ToolResultFormatter("compact", new MockEnvironment()), this.writes::incrementAndGet,
+				new ChatMetrics(this.registry));
+		return Map.of(callbacks.get(0).getToolDefinition().name(), callbacks.get(0),
+				callbacks.get(1).getToolDefinition().name(), callbacks.get(1));
+	}
+
+	private static ToolContext turn(String id) {
+		return new ToolContext(Map.of(ToolResultMemo.TURN_ID, id));
+	}
+
+	static class CountingTools {
+
+		final AtomicInteger reads = new AtomicInteger();
+
+		final AtomicInteger writes = new AtomicInteger();
+
+		@Tool(description = "List vets")
+		@ReadOnlyTool
+		public String listVets(String specialty) {
+			return "vets " + this.reads.incrementAndGet();
+		}
+
+		@Tool(description = "Add a vet")
+		public String addVet(String name) {
+			return "added " + this.writes.incrementAndGet();
+		}
+
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.samples.petclinic.genai.ChatLoadHarness.Report;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Test of the chat with the stand-in models of the {@code offline} profile, driven by the
+ * {@link ChatLoadHarness}.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = { "petclinic.ai.offline.latency.median=20ms", "petclinic.ai.offline.latency.p99=50ms" })
+@ActiveProfiles("offline")
+class OfflineProfileTests {
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	private VectorStoreController vectorStoreController;
+
+	@Autowired
+	private HashEmbeddingModel embeddingModel;
+
+	@Autowired
+	private ChatClient chatClient;
+
+	@BeforeEach
+	void awaitVectorStore() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (this.vectorStoreController.getState() == State.LOADING && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+		assertThat(this.vectorStoreController.getState()).isEqualTo(State.READY);
+	}
+
+	@Test
+	void shouldAnswerFromToolsWithoutProvider() {
+		assertThat(ask("Which vets do dentistry?")).contains("listVets").contains("Leary");
+		assertThat(ask("Which owners have a cat?")).contains("findOwners").contains("Franklin");
+		assertThat(this.embeddingModel.embed("Which vets do dentistry?"))
+			.isEqualTo(new HashEmbeddingModel(384).embed("which VETS do dentistry"));
+	}
+
+	@Test
+	void shouldReportOverheadExcludingProviderTime() throws Exception {
+		Report report = new ChatLoadHarness(URI.create("http://localhost:" + this.port)).run(40, 4);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		report.print(new PrintStream(out, true));
+		System.out.print(out);
+
+		assertThat(report.errors()).isZero();
+		// Each question goes through one or two model round-trips
+		assertThat(Report.percentile(report.providerTimes(), 0.5)).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(10));
+		assertThat(out.toString()).contains("40 requests, 4 concurrent clients").contains("overhead");
+	}
+
+	private String ask(String question) {
+		return this.chatClient.prompt().user(question).call().content();
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage.ToolResponse;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Test class for {@link ParallelToolCallingManager}
+ */
+class ParallelToolCallingManagerTests {
+
+	private final LatchedTools tools = new LatchedTools();
+
+	private final ToolCallingManager manager = new ParallelToolCallingManager(ToolCallingManager.builder().build(),
+			new SimpleAsyncTaskExecutor("tool-call-"), 2);
+
+	private final Prompt prompt = new Prompt(List.of(new UserMessage("Who are the vets and the owners?")),
+			ToolCallingChatOptions.builder()
+				.toolCallbacks(MemoizingToolCallback.of(this.tools, new ToolResultMemo(Duration.ZERO, 10),
+						new ToolResultFormatter("compact", new MockEnvironment()), () -> {
+						}, new ChatMetrics(new SimpleMeterRegistry())))
+				.build());
+
+	@Test
+	void shouldRunReadOnlyToolsConcurrentlyAndKeepOrder() {
+		// Each read-only tool waits for the other, they only complete when run together
+		ToolExecutionResult result = this.manager.executeToolCalls(this.prompt,
+				toolCalls(toolCall("1", "listVets"), toolCall("2", "listOwners")));
+
+		List<Message> history = result.conversationHistory();
+		assertThat(history).hasSize(3);
+		assertThat(((AssistantMessage) history.get(1)).getToolCalls()).hasSize(2);
+		assertThat(((ToolResponseMessage) history.get(2)).getResponses())
+			.extracting(ToolResponse::id, ToolResponse::responseData)
+			.containsExactly(tuple("1", "vets"), tuple("2", "owners"));
+		assertThat(this.tools.threads).hasSize(2).doesNotContain(Thread.currentThread().getName());
+	}
+
+	@Test
+	void shouldRunAtMostMaxParallelToolsOfATurn() {
+		ToolExecutionResult result = this.manager.executeToolCalls(this.prompt, toolCalls(toolCall("1", "listVets"),
+				toolCall("2", "listOwners"), toolCall("3", "listVets"), toolCall("4", "listOwners")));
+
+		assertThat(((ToolResponseMessage) result.conversationHistory().get(2)).getResponses())
+			.extracting(ToolResponse::id, ToolResponse::responseData)
+			.containsExactly(tuple("1", "vets"), tuple("2", "owners"), tuple("3", "vets"), tuple("4", "owners"));
+		// Two workers took the four calls
+		assertThat(this.tools.threads).hasSize(2);
+	}
+
+	@Test
+	void shouldRunToolsOneAfterTheOtherWhenOneWrites() {
+		this.tools.together.countDown();
+		this.tools.together.countDown();
+
+		ToolExecutionResult result = this.manager.executeToolCalls(this.prompt,
+				toolCalls(toolCall("1", "listVets"), toolCall("2", "addVet")));
+
+		assertThat(((ToolResponseMessage) result.conversationHistory().get(2)).getResponses())
+			.extracting(ToolResponse::id)
+			.containsExactly("1", "2");
+		assertThat(this.tools.threads).containsOnly(Thread.currentThread().getName());
+	}
+
+	private static ChatResponse toolCalls(ToolCall... toolCalls) {
+		return new ChatResponse(
+				List.of(new Generation(AssistantMessage.builder().content("").toolCalls(List.of(toolCalls)).build())));
+	}
+
+	private static ToolCall toolCall(String id, String name) {
+		return new ToolCall(id, "function", name, "{}");
+	}
+
+	static class LatchedTools {
+
+		final CountDownLatch together = new CountDownLatch(2);
+
+		final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+		@Tool(description = "List vets")
+		@ReadOnlyTool
+		public String listVets() throws InterruptedException {
+			return meet("vets");
+		}
+
+		@Tool(description = "List owners")
+		@ReadOnlyTool
+		public String listOwners() throws InterruptedException {
+			return meet("owners");
+		}
+
+		@Tool(description = "Add a vet")
+		public String addVet() {
+			this.threads.add(Thread.currentThread().getName());
+			return "added";
+		}
+
+		private String meet(String result) throws InterruptedException {
+			this.threads.add(Thread.currentThread().getName());
+			this.together.countDown();
+			assertThat(this.together.await(10, TimeUnit.SECONDS)).isTrue();
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.samples.petclinic.genai.ChatBulkhead.Admission;
+import org.springframework.samples.petclinic.genai.PetclinicChatClient.ChatChunk;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for {@link PetclinicChatClient}
+ */
+@ExtendWith(MockitoExtension.class)
+class PetclinicChatClientTests {
+
+	@Mock
+	private ChatModel chatModel;
+
+	@Mock
+	private VectorStoreController vectorStoreController;
+
+	private BoundedChatMemoryRepository chatMemoryRepository;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private ChatBulkhead bulkhead;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setup() {
+		this.chatMemoryRepository = new BoundedChatMemoryRepository(DataSize.ofMegabytes(1), Duration.ofMinutes(30),
+				Clock.systemUTC());
+		ChatMemory chatMemory = MessageWindowChatMemory.builder()
+			.chatMemoryRepository(this.chatMemoryRepository)
+			.build();
+		ChatClient chatClient = ChatClient.builder(this.chatModel)
+			.defaultAdvisors(MessageChatMemoryAdvisor.builder(chatMemory).build())
+			.build();
+		this.bulkhead = new ChatBulkhead(1, 1, Duration.ofMillis(500), Duration.ofSeconds(7));
+		this.bulkhead.bindTo(this.registry);
+		PetclinicChatClient controller = new PetclinicChatClient(chatClient, this.vectorStoreController, this.bulkhead);
+		this.mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@Test
+	void shouldStreamAnswerAsServerSentEvents() throws Exception {
+		given(this.vectorStoreController.getState()).willReturn(State.READY);
+		given(this.chatModel.stream(any(Prompt.class))).willReturn(Flux.just(response("Dr. "), response("Carter\n")));
+
+		MvcResult result = this.mockMvc
+			.perform(post("/chat/stream").contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.content("\"Who does radiology?\""))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+
+		this.mockMvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(content().string("data:{\"text\":\"Dr. \"}\n\ndata:{\"text\":\"Carter\\n\"}\n\n"));
+	}
+
+	@Test
+	void shouldOnlyHoldBulkheadPermitWhileStreamIsSubscribed() {
+		given(this.vectorStoreController.getState()).willReturn(State.READY);
+		given(this.chatModel.stream(any(Prompt.class))).willReturn(Flux.just(response("Dr. Carter")));
+		PetclinicChatClient controller = new PetclinicChatClient(ChatClient.builder(this.chatModel).build(),
+				this.vectorStoreController, this.bulkhead);
+
+		Flux<ChatChunk> chunks = controller.stream("\"Who does radiology?\"", null, new MockHttpSession()).getBody();
+
+		// Not subscribed yet, so the only permit is free
+		assertThat(this.registry.get("chat.bulkhead.active").gauge().value()).isZero();
+		assertThat(chunks.map(ChatChunk::text).collectList().block()).containsExactly("Dr. Carter");
+		assertThat(this.registry.get("chat.bulkhead.active").gauge().value()).isZero();
+	}
+
+	@Test
+	void shouldRememberEachConversationSeparately() throws Exception {
+		given(this.vectorStoreController.getState()).willReturn(State.READY);
+		given(this.chatModel.call(any(Prompt.class))).willReturn(response("Dr. Douglas"));
+
+		MockHttpSession alice = new MockHttpSession();
+		this.mockMvc
+			.perform(post("/chat").contentType(MediaType.APPLICATION_JSON)
+				.session(alice)
+				.header(PetclinicChatClient.CONVERSATION_ID_HEADER, "1")
+				.content("\"Who does dentistry?\""))
+			.andExpect(status().isOk());
+		// Naming the same conversation from another session does not reach alice's
+		MockHttpSession mallory = new MockHttpSession();
+		this.mockMvc
+			.perform(post("/chat").contentType(MediaType.APPLICATION_JSON)
+				.session(mallory)
+				.header(PetclinicChatClient.CONVERSATION_ID_HEADER, "1")
+				.content("\"Hi\""))
+			.andExpect(status().isOk());
+		MockHttpSession session = new MockHttpSession();
+		this.mockMvc.perform(post("/chat").contentType(MediaType.APPLICATION_JSON).session(session).content("\"Hi\""))
+			.andExpect(status().isOk());
+
+		assertThat(this.chatMemoryRepository.findConversationIds()).containsExactlyInAnyOrder(alice.getId() + ":1",
+				mallory.getId() + ":1", session.getId());
+		assertThat(this.chatMemoryRepository.findByConversationId(alice.getId() + ":1")).extracting(Message::getText)
+			.containsExactly("\"Who does dentistry?\"", "Dr. Douglas");
+	}
+
+	@Test
+	void shouldAskToRetryWhileVectorStoreIsLoading() throws Exception {
+		given(this.vectorStoreController.getState()).willReturn(State.LOADING);
+
+		this.mockMvc.perform(post("/chat").contentType(MediaType.APPLICATION_JSON).content("\"Hello\""))
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(header().string("Retry-After", "5"));
+	}
+
+	@Test
+	void shouldTellWhenVectorStoreFailedToLoad() throws Exception {
+		given(this.vectorStoreController.getState()).willReturn(State.FAILED);
+
+		this.mockMvc.perform(post("/chat").contentType(MediaType.APPLICATION_JSON).content("\"Hello\""))
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(header().string("Retry-After", "60"))
+			.andExpect(content().string("The assistant is unavailable at the moment, please try again later."));
+	}
+
+	@Test
+	void shouldShedLoadBeyondBulkhead() throws Exception {
+		given(this.vectorStoreController.getState()).willReturn(State.READY);
+		// The only permit is taken, and the only place in the queue once the waiter runs
+		assertThat(this.bulkhead.acquire()).isEqualTo(Admission.ADMITTED);
+		CompletableFuture<Admission> waiter = CompletableFuture.supplyAsync(this.bulkhead::acquire);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (this.registry.get("chat.bulkhead.queued").gauge().value() < 1 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+
+		this.mockMvc.perform(post("/chat").contentType(MediaType.APPLICATION_JSON).content("\"Hello\""))
+			.andExpect(status().isTooManyRequests())
+			.andExpect(header().string("Retry-After", "7"));
+		assertThat(waiter.get(10, TimeUnit.SECONDS)).isEqualTo(Admission.TIMED_OUT);
+		this.mockMvc.perform(post("/chat").contentType(MediaType.APPLICATION_JSON).content("\"Hello\""))
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(header().string("Retry-After", "7"));
+
+		assertThat(this.registry.get("chat.bulkhead.rejected").tag("reason", "queue-full").functionCounter().count())
+			.isEqualTo(1);
+		assertThat(this.registry.get("chat.bulkhead.rejected").tag("reason", "timeout").functionCounter().count())
+			.isEqualTo(2);
+	}
+
+	private static ChatResponse response(String text) {
+		return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+	}
+
+}
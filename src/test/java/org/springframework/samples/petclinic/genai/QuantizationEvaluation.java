@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.springframework.samples.petclinic.genai.SnapshotVectorStore.Quantization;
+
+/**
+ * Reports recall@k of the quantized searches of {@link SnapshotVectorStore} against the
+ * exact search, for every {@link Quantization} mode. Queries are built by blending the
+ * embeddings of two random documents of the snapshot, so no embedding model is needed.
+ * <p>
+ * Usage: {@code QuantizationEvaluation <vectorstore.bin> [k] [queries] [oversample]}
+ */
+public final class QuantizationEvaluation {
+
+	private final VectorStoreSnapshot snapshot;
+
+	private final int k;
+
+	private final int oversample;
+
+	QuantizationEvaluation(VectorStoreSnapshot snapshot, int k, int oversample) {
+		this.snapshot = snapshot;
+		this.k = k;
+		this.oversample = oversample;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 4) {
+			System.err.println("Usage: QuantizationEvaluation <vectorstore.bin> [k] [queries] [oversample]");
+			System.exit(1);
+		}
+		int k = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		int queries = (args.length > 2) ? Integer.parseInt(args[2]) : 100;
+		int oversample = (args.length > 3) ? Integer.parseInt(args[3]) : 8;
+		try (VectorStoreSnapshot snapshot = VectorStoreSnapshot.open(Path.of(args[0]))) {
+			new QuantizationEvaluation(snapshot, k, oversample).report(queries, System.out);
+		}
+	}
+
+	void report(int queryCount, PrintStream out) {
+		float[][] queries = queries(queryCount);
+		long fullSize = (long) this.snapshot.size() * this.snapshot.dimensions() * Float.BYTES;
+		out.printf("%d documents, %d dimensions, %d queries, k=%d, oversample=%d%n", this.snapshot.size(),
+				this.snapshot.dimensions(), queries.length, this.k, this.oversample);
+		out.printf("%-8s %10s %12s %12s%n", "mode", "bytes", "first pass", "rescored");
+		out.printf("%-8s %10d %12.3f %12.3f%n", "none", fullSize, 1.0, 1.0);
+		for (Quantization quantization : new Quantization[] { Quantization.INT8, Quantization.BINARY }) {
+			QuantizedVectors quantized = QuantizedVectors.of(this.snapshot, quantization);
+			Recall recall = recall(quantized, queries);
+			out.printf("%-8s %10d %12.3f %12.3f%n", quantization.name().toLowerCase(), quantized.sizeInBytes(),
+					recall.firstPass(), recall.rescored());
+		}
+	}
+
+	/**
+	 * Mean fraction of the exact top k found by the first pass alone, and after rescoring
+	 * {@code k * oversample} candidates.
+	 */
+	Recall recall(QuantizedVectors quantized, float[][] queries) {
+		double firstPass = 0;
+		double rescored = 0;
+		for (float[] query : queries) {
+			int[] exact = exact(query, IntStream.range(0, this.snapshot.size()).toArray());
+			int[] candidates = quantized.candidates(query, this.k * this.oversample, row -> true);
+			firstPass += overlap(exact, Arrays.copyOf(candidates, Math.min(this.k, candidates.length)));
+			rescored += overlap(exact, exact(query, candidates));
+		}
+		return new Recall(firstPass / queries.length, rescored / queries.length);
+	}
+
+	private float[][] queries(int count) {
+		Random random = new Random(42);
+		float[][] queries = new float[count][];
+		for (int i = 0; i < count; i++) {
+			float[] a = this.snapshot.embedding(random.nextInt(this.snapshot.size()));
+			float[] b = this.snapshot.embedding(random.nextInt(this.snapshot.size()));
+			float weight = random.nextFloat();
+			float[] query = new float[a.length];
+			for (int d = 0; d < a.length; d++) {
+				query[d] = weight * a[d] + (1 - weight) * b[d];
+			}
+			queries[i] = query;
+		}
+		return queries;
+	}
+
+	// Each row is scored once, the best k are kept in a min-heap
+	private int[] exact(float[] query, int[] rows) {
+		float[] buffer = new float[query.length];
+		PriorityQueue<Scored> best = new PriorityQueue<>(Comparator.comparingDouble(Scored::score));
+		for (int row : rows) {
+			float norm = this.snapshot.norm(row);
+			double score = (norm == 0) ? 0 : this.snapshot.dot(row, query, buffer) / norm;
+			if (best.size() < this.k) {
+				best.add(new Scored(row, score));
+			}
+			else if (best.peek().score() < score) {
+				best.poll();
+				best.add(new Scored(row, score));
+			}
+		}
+		int[] top = new int[best.size()];
+		for (int i = top.length - 1; i >= 0; i--) {
+			top[i] = best.poll().row();
+		}
+		return top;
+	}
+
+	private double overlap(int[] expected, int[] actual) {
+		long found = Arrays.stream(actual).filter(row -> Arrays.stream(expected).anyMatch(e -> e == row)).count();
+		return (double) found / expected.length;
+	}
+
+	record Recall(double firstPass, double rescored) {
+	}
+
+	private record Scored(int row, double score) {
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.vectorstore.SimpleVectorStoreContent;
+import org.springframework.samples.petclinic.genai.QuantizationEvaluation.Recall;
+import org.springframework.samples.petclinic.genai.SnapshotVectorStore.Quantization;
+
+/**
+ * Test class for {@link QuantizedVectors} and {@link QuantizationEvaluation}
+ */
+class QuantizationEvaluationTests {
+
+	@TempDir
+	static Path directory;
+
+	// Written once, the tests only read it
+	private static VectorStoreSnapshot snapshot;
+
+	private static float[][] queries;
+
+	private final QuantizationEvaluation evaluation = new QuantizationEvaluation(snapshot, 10, 8);
+
+	@BeforeAll
+	static void setup() throws Exception {
+		Random random = new Random(3);
+		List<SimpleVectorStoreContent> contents = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			contents.add(new SimpleVectorStoreContent("doc-" + i, "text " + i, Map.of(), gaussian(random, 128)));
+		}
+		Path file = directory.resolve("vectorstore.bin");
+		VectorStoreSnapshot.write(file, contents);
+		snapshot = VectorStoreSnapshot.open(file);
+		queries = new float[30][];
+		for (int i = 0; i < queries.length; i++) {
+			queries[i] = gaussian(random, 128);
+		}
+	}
+
+	@AfterAll
+	static void close() throws Exception {
+		snapshot.close();
+	}
+
+	@Test
+	void shouldRecoverExactNeighboursByRescoring() {
+		Recall int8 = this.evaluation.recall(QuantizedVectors.of(snapshot, Quantization.INT8), queries);
+		Recall binary = this.evaluation.recall(QuantizedVectors.of(snapshot, Quantization.BINARY), queries);
+
+		assertThat(int8.firstPass()).isGreaterThan(0.8);
+		assertThat(int8.rescored()).isGreaterThan(0.99);
+		// Random vectors are the worst case for one bit per dimension
+		assertThat(binary.rescored()).isGreaterThan(binary.firstPass()).isGreaterThan(0.5);
+	}
+
+	@Test
+	void shouldReportEveryMode() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		this.evaluation.report(20, new PrintStream(out, true));
+
+		assertThat(out.toString()).contains("none", "int8", "binary").contains("1000 documents, 128 dimensions");
+	}
+
+	private static float[] gaussian(Random random, int dimensions) {
+		float[] vector = new float[dimensions];
+		for (int i = 0; i < dimensions; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return vector;
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.embedding.EmbeddingModel;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for {@link SemanticResponseCache}
+ */
+@ExtendWith(MockitoExtension.class)
+class SemanticResponseCacheTests {
+
+	@Mock
+	private ChatModel chatModel;
+
+	@Mock
+	private EmbeddingModel embeddingModel;
+
+	private SemanticResponseCache cache;
+
+	private ChatClient chatClient;
+
+	@BeforeEach
+	void setup() {
+		// Questions about dentistry are close to each other, anything else is far away
+		lenient().when(this.embeddingModel.embed(anyString()))
+			.thenAnswer(invocation -> ((String) invocation.getArgument(0)).contains("dentistry")
+					? new float[] { 1, 0.1f, 0 } : new float[] { 0, 0, 1 });
+		this.cache = new SemanticResponseCache(this.embeddingModel, true, 0.95, 10);
+		this.chatClient = ChatClient.builder(this.chatModel).defaultAdvisors(this.cache).build();
+	}
+
+	@Test
+	void shouldAnswerSimilarQuestionsFromCache() {
+		given(this.chatModel.call(any(Prompt.class))).willReturn(response("Dr. Douglas"));
+
+		assertThat(ask("Which vets do dentistry?")).isEqualTo("Dr. Douglas");
+		assertThat(ask("  which VETS do dentistry ")).isEqualTo("Dr. Douglas");
+		assertThat(ask("\"Which vets do dentistry?\"")).isEqualTo("Dr. Douglas");
+		verify(this.chatModel, times(1)).call(any(Prompt.class));
+
+		ask("Who owns Leo?");
+		verify(this.chatModel, times(2)).call(any(Prompt.class));
+	}
+
+	@Test
+	void shouldForgetAnswersWhenDataChanges() {
+		given(this.chatModel.call(any(Prompt.class))).willReturn(response("Dr. Douglas"));
+		ask("Which vets do dentistry?");
+
+		this.cache.invalidate();
+		ask("Which vets do dentistry?");
+
+		verify(this.chatModel, times(2)).call(any(Prompt.class));
+	}
+
+	@Test
+	void shouldNotCacheTurnsThatChangedData() {
+		// Like a write tool called while answering
+		given(this.chatModel.call(any(Prompt.class))).willAnswer(invocation -> {
+			this.cache.invalidate();
+			return response("Done, the dentistry appointment is booked");
+		});
+
+		ask("Book a dentistry appointment");
+
+		assertThat(this.cache.size()).isZero();
+	}
+
+	@Test
+	void shouldNotAnswerFollowUpsFromOtherConversations() {
+		given(this.chatModel.call(any(Prompt.class))).willReturn(response("Leo is owned by George"),
+				response("Dr. Douglas"), response("Dr. Douglas is on leave, Dr. Ortega"));
+		ChatMemory chatMemory = MessageWindowChatMemory.builder().build();
+		ChatClient chatClient = ChatClient.builder(this.chatModel)
+			.defaultAdvisors(MessageChatMemoryAdvisor.builder(chatMemory).build(), this.cache)
+			.build();
+
+		ask(chatClient, "george", "Who owns Leo?");
+		assertThat(ask(chatClient, "george", "Which vets do dentistry then?")).isEqualTo("Dr. Douglas");
+		// The first question is answered from the cache, but not the follow-up
+		assertThat(ask(chatClient, "betty", "Who owns Leo?")).isEqualTo("Leo is owned by George");
+		assertThat(ask(chatClient, "betty", "Which vets do dentistry then?"))
+			.isEqualTo("Dr. Douglas is on leave, Dr. Ortega");
+
+		verify(this.chatModel, times(3)).call(any(Prompt.class));
+	}
+
+	@Test
+	void shouldCacheStreamedAnswers() {
+		given(this.chatModel.stream(any(Prompt.class))).willReturn(Flux.just(response("Dr. "), response("Douglas")));
+
+		assertThat(this.chatClient.prompt().user("Which vets do dentistry?").stream().content().collectList().block())
+			.containsExactly("Dr. ", "Douglas");
+
+		assertThat(ask("which vets do dentistry")).isEqualTo("Dr. Douglas");
+	}
+
+	@Test
+	void shouldNormalizeQuestions() {
+		assertThat(SemanticResponseCache.normalize(" \"Which  Vets\tdo dentistry?!\" "))
+			.isEqualTo("which vets do dentistry");
+	}
+
+	private String ask(String question) {
+		return this.chatClient.prompt().user(question).call().content();
+	}
+
+	private static String ask(ChatClient chatClient, String conversationId, String question) {
+		return chatClient.prompt()
+			.user(question)
+			.advisors(advisor -> advisor.param(ChatMemory.CONVERSATION_ID, conversationId))
+			.call()
+			.content();
+	}
+
+	private static ChatResponse response(String text) {
+		return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+	}
+
+}
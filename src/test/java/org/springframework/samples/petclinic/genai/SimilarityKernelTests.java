@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link SimilarityKernel} implementations
+ */
+class SimilarityKernelTests {
+
+	@Test
+	void shouldComputeSimilarities() {
+		SimilarityKernel kernel = SimilarityKernels.scalar();
+		float[] a = { 1, 2, 3 };
+		float[] b = { 4, -5, 6 };
+
+		assertThat(kernel.dot(a, b)).isEqualTo(12);
+		assertThat(kernel.cosine(a, b)).isCloseTo((float) (12 / Math.sqrt(14 * 77)), within(1e-6f));
+		assertThat(kernel.cosine(a, new float[3])).isZero();
+		assertThat(kernel.squaredL2(a, b)).isEqualTo(9 + 49 + 9);
+	}
+
+	@Test
+	void shouldMatchScalarKernelWhenVectorized() {
+		SimilarityKernel vectorized = SimilarityKernels.vectorized();
+		assumeTrue(vectorized != null, "jdk.incubator.vector is not available");
+		SimilarityKernel scalar = SimilarityKernels.scalar();
+		Random random = new Random(7);
+		// Lengths that are not a multiple of the vector size exercise the tail loops
+		for (int dimensions : new int[] { 1, 7, 16, 33, 1536 }) {
+			float[] a = gaussian(random, dimensions);
+			float[] b = gaussian(random, dimensions);
+			assertThat(vectorized.dot(a, b)).isCloseTo(scalar.dot(a, b), within(1e-3f));
+			assertThat(vectorized.cosine(a, b)).isCloseTo(scalar.cosine(a, b), within(1e-5f));
+			assertThat(vectorized.squaredL2(a, b)).isCloseTo(scalar.squaredL2(a, b), within(1e-2f));
+		}
+	}
+
+	private static float[] gaussian(Random random, int dimensions) {
+		float[] vector = new float[dimensions];
+		for (int i = 0; i < dimensions; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return vector;
+	}
+
+}
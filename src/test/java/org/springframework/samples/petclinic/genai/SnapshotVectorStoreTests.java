@@ -0,0 +1,228 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatException;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStoreContent;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.samples.petclinic.genai.SnapshotVectorStore.Contents;
+import org.springframework.samples.petclinic.genai.SnapshotVectorStore.Quantization;
+
+/**
+ * Test class for {@link VectorStoreSnapshot} and {@link SnapshotVectorStore}
+ */
+class SnapshotVectorStoreTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void shouldRoundTripSnapshot() throws Exception {
+		Path file = tempDir.resolve("vectorstore.bin");
+		VectorStoreSnapshot.write(file,
+				List.of(new SimpleVectorStoreContent("1", "James Carter", Map.of("specialties", 0),
+						new float[] { 3, 4, 0 }),
+						new SimpleVectorStoreContent("2", "Helen Leary", Map.of("specialty", "radiology"),
+								new float[] { 0, 1, 0 })));
+
+		try (VectorStoreSnapshot snapshot = VectorStoreSnapshot.open(file)) {
+			assertThat(snapshot.size()).isEqualTo(2);
+			assertThat(snapshot.dimensions()).isEqualTo(3);
+			assertThat(snapshot.norm(0)).isEqualTo(5f);
+			assertThat(snapshot.dot(0, new float[] { 1, 1, 1 })).isEqualTo(7d);
+			assertThat(snapshot.embedding(1)).containsExactly(0, 1, 0);
+			assertThat(snapshot.id(1)).isEqualTo("2");
+			Document helen = snapshot.document(1, 0.5);
+			assertThat(helen.getText()).isEqualTo("Helen Leary");
+			assertThat(helen.getMetadata()).containsEntry("specialty", "radiology");
+			assertThat(helen.getScore()).isEqualTo(0.5);
+		}
+	}
+
+	@Test
+	void shouldConvertJsonVectorStore() throws Exception {
+		Path json = tempDir.resolve("vectorstore.json");
+		Files.writeString(json, """
+				{
+				  "a": { "id": "a", "text": "dentistry vet", "metadata": {}, "embedding": [1.0, 0.0, 0.0] },
+				  "b": { "id": "b", "text": "radiology vet", "metadata": { "k": "v" }, "embedding": [0.0, 1.0, 0.0] }
+				}
+				""", StandardCharsets.UTF_8);
+		Path bin = tempDir.resolve("vectorstore.bin");
+
+		VectorStoreSnapshot.convertJson(new FileSystemResource(json), bin);
+
+		try (VectorStoreSnapshot snapshot = VectorStoreSnapshot.open(bin)) {
+			assertThat(snapshot.size()).isEqualTo(2);
+			assertThat(snapshot.content(1).getText()).isEqualTo("radiology vet");
+			assertThat(snapshot.metadata(1)).containsEntry("k", "v");
+		}
+	}
+
+	@Test
+	void shouldDeleteTemporarySnapshots() throws Exception {
+		Path json = tempDir.resolve("vectorstore.json");
+		Files.writeString(json, """
+				{ "a": { "id": "a", "text": "dentistry vet", "metadata": {}, "embedding": [1.0, 0.0, 0.0] } }
+				""", StandardCharsets.UTF_8);
+		Path bin = tempDir.resolve("vectorstore.bin");
+		VectorStoreSnapshot.convertJson(new FileSystemResource(json), bin);
+
+		// Converted from JSON, and copied out of a resource that is not a file
+		for (Resource resource : List.of(new FileSystemResource(json),
+				new ByteArrayResource(Files.readAllBytes(bin)))) {
+			Path path;
+			try (VectorStoreSnapshot snapshot = VectorStoreSnapshot.open(resource)) {
+				path = snapshot.getPath();
+				assertThat(snapshot.text(0)).isEqualTo("dentistry vet");
+			}
+			assertThat(path).doesNotExist();
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(Quantization.class)
+	void shouldSearchSnapshotAndOverlay(Quantization quantization) throws Exception {
+		SnapshotVectorStore store = SnapshotVectorStore.builder(new KeywordEmbeddingModel()).build();
+		store.add(List.of(new Document("d", "dentistry", Map.of()), new Document("r", "radiology", Map.of())));
+		File file = tempDir.resolve("saved.bin").toFile();
+		store.save(file);
+
+		SnapshotVectorStore reloaded = SnapshotVectorStore.builder(new KeywordEmbeddingModel())
+			.quantization(quantization)
+			.build();
+		reloaded.load(new FileSystemResource(file));
+		reloaded.add(List.of(new Document("s", "surgery", Map.of())));
+		reloaded.delete(List.of("r"));
+
+		assertThat(search(reloaded, "radiology")).containsExactlyInAnyOrder("d", "s");
+		assertThat(search(reloaded, "surgery")).startsWith("s");
+		assertThat(search(reloaded, "dentistry")).startsWith("d");
+	}
+
+	@Test
+	void shouldKeepReplacedSnapshotOpenUntilSearchesRelease() throws Exception {
+		SnapshotVectorStore store = SnapshotVectorStore.builder(new KeywordEmbeddingModel()).build();
+		store.add(List.of(new Document("d", "dentistry", Map.of())));
+		File file = tempDir.resolve("saved.bin").toFile();
+		store.save(file);
+		SnapshotVectorStore reloaded = SnapshotVectorStore.builder(new KeywordEmbeddingModel()).build();
+		reloaded.load(new FileSystemResource(file));
+
+		// Like a search started before the reload
+		Contents inFlight = reloaded.acquire();
+		reloaded.load(new FileSystemResource(file));
+
+		assertThat(inFlight.snapshot().document(0, 1.0).getId()).isEqualTo("d");
+		inFlight.release();
+		assertThatException().isThrownBy(() -> inFlight.snapshot().document(0, 1.0));
+		assertThat(search(reloaded, "dentistry")).containsExactly("d");
+	}
+
+	@Test
+	void shouldPublishTombstoneAndReplacementTogether() throws Exception {
+		SnapshotVectorStore store = SnapshotVectorStore.builder(new KeywordEmbeddingModel()).build();
+		store.add(List.of(new Document("d", "dentistry", Map.of())));
+		File file = tempDir.resolve("saved.bin").toFile();
+		store.save(file);
+		SnapshotVectorStore reloaded = SnapshotVectorStore.builder(new KeywordEmbeddingModel()).build();
+		reloaded.load(new FileSystemResource(file));
+		Contents before = reloaded.acquire();
+
+		reloaded.add(List.of(new Document("d", "dentistry and surgery", Map.of())));
+
+		// A search that started earlier keeps reading the snapshot row alone
+		assertThat(before.deleted().isEmpty()).isTrue();
+		assertThat(before.overlay()).isEmpty();
+		before.release();
+		Contents after = reloaded.acquire();
+		assertThat(after.deleted().get(0)).isTrue();
+		assertThat(after.overlay()).containsOnlyKeys("d");
+		after.release();
+		assertThat(search(reloaded, "dentistry")).containsExactly("d");
+	}
+
+	private List<String> search(SnapshotVectorStore store, String query) {
+		return store.similaritySearch(SearchRequest.builder().query(query).topK(5).build())
+			.stream()
+			.map(Document::getId)
+			.toList();
+	}
+
+	/**
+	 * Maps each known keyword to its own axis so that similarity is predictable.
+	 */
+	static class KeywordEmbeddingModel implements EmbeddingModel {
+
+		private static final List<String> KEYWORDS = List.of("dentistry", "radiology", "surgery");
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			List<Embedding> embeddings = new ArrayList<>();
+			for (int i = 0; i < request.getInstructions().size(); i++) {
+				embeddings.add(new Embedding(embed(request.getInstructions().get(i)), i));
+			}
+			return new EmbeddingResponse(embeddings);
+		}
+
+		@Override
+		public float[] embed(String text) {
+			float[] vector = new float[KEYWORDS.size() + 1];
+			for (int i = 0; i < KEYWORDS.size(); i++) {
+				if (text.contains(KEYWORDS.get(i))) {
+					vector[i] = 1;
+				}
+			}
+			vector[KEYWORDS.size()] = 0.1f;
+			return vector;
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return embed(document.getText());
+		}
+
+		@Override
+		public int dimensions() {
+			return KEYWORDS.size() + 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.Visit;
+
+/**
+ * Test class for {@link ToolResultFormatter}
+ */
+class ToolResultFormatterTests {
+
+	private static final String OWNER_FIELDS = "id,firstName,lastName,address,city,telephone,pets.id,pets.name,"
+			+ "pets.birthDate,pets.type.name,pets.visits.date,pets.visits.description";
+
+	private final TokenCountEstimator tokens = new JTokkitTokenCountEstimator();
+
+	@Test
+	void shouldRenderListsOfObjectsAsTables() {
+		ToolCallResultConverter converter = formatter(OWNER_FIELDS).converter("listOwners");
+
+		String text = converter.convert(List.of(owner(1, "George", "Franklin", "Leo")), List.class);
+
+		assertThat(text).isEqualTo(
+				"""
+						id|firstName|lastName|address|city|telephone|pets(id,name,birthDate,type,visits(date,description))
+						1|George|Franklin|110 W. Liberty St.|Madison|6085551023|[(1,Leo,2010-09-07,cat,[(2013-01-01,rabies shot)])]""");
+	}
+
+	@Test
+	void shouldRenderVetDocumentsAsTables() {
+		ToolCallResultConverter converter = formatter("").converter("listVets");
+
+		String text = converter.convert(List.of("{\"firstName\":\"Helen\",\"specialties\":[{\"name\":\"radiology\"}]}",
+				"{\"firstName\":\"James\",\"specialties\":[]}"), List.class);
+
+		assertThat(text).isEqualTo("firstName|specialties\nHelen|[radiology]\nJames|");
+	}
+
+	@Test
+	void shouldQuoteValuesContainingSeparators() {
+		ToolCallResultConverter converter = formatter("").converter("addOwnerToPetclinic");
+
+		assertThat(converter.convert(List.of("a|b", "c, d", " e", "f"), List.class))
+			.isEqualTo("[\"a|b\",\"c, d\",\" e\",f]");
+	}
+
+	@Test
+	void shouldSpendFewerTokensThanJson() {
+		List<Owner> owners = new ArrayList<>();
+		String[] names = { "Leo", "Basil", "Rosy", "Jewel", "Iggy", "George", "Samantha", "Max", "Lucky", "Mulligan" };
+		for (int i = 1; i <= 100; i++) {
+			owners.add(owner(i, "First" + i, "Last" + i, names[i % names.length]));
+		}
+
+		int json = this.tokens.estimate(new DefaultToolCallResultConverter().convert(owners, List.class));
+		int compact = this.tokens.estimate(formatter("").converter("listOwners").convert(owners, List.class));
+		int projected = this.tokens
+			.estimate(formatter(OWNER_FIELDS).converter("listOwners").convert(owners, List.class));
+
+		System.out.printf("listOwners of 100 owners: %d tokens in JSON, %d compact, %d compact and projected%n", json,
+				compact, projected);
+		assertThat(compact).isLessThan(json * 2 / 3);
+		assertThat(projected).isLessThan(json / 2);
+	}
+
+	@Test
+	void shouldSerializeToJsonWhenConfigured() {
+		ToolResultFormatter formatter = new ToolResultFormatter("json", new MockEnvironment());
+		Owner owner = owner(1, "George", "Franklin", "Leo");
+
+		assertThat(formatter.converter("listOwners").convert(owner, Owner.class))
+			.isEqualTo(new DefaultToolCallResultConverter().convert(owner, Owner.class));
+	}
+
+	private static ToolResultFormatter formatter(String ownerFields) {
+		MockEnvironment environment = new MockEnvironment().withProperty("petclinic.ai.tool-results.fields.listOwners",
+				ownerFields);
+		return new ToolResultFormatter("compact", environment);
+	}
+
+	private static Owner owner(int id, String firstName, String lastName, String petName) {
+		Owner owner = new Owner();
+		owner.setId(id);
+		owner.setFirstName(firstName);
+		owner.setLastName(lastName);
+		owner.setAddress("110 W. Liberty St.");
+		owner.setCity("Madison");
+		owner.setTelephone("6085551023");
+		PetType cat = new PetType();
+		cat.setId(1);
+		cat.setName("cat");
+		Pet pet = new Pet();
+		pet.setName(petName);
+		pet.setBirthDate(LocalDate.of(2010, 9, 7));
+		pet.setType(cat);
+		Visit visit = new Visit();
+		visit.setId(id);
+		visit.setDate(LocalDate.of(2013, 1, 1));
+		visit.setDescription("rabies shot");
+		pet.addVisit(visit);
+		owner.addPet(pet);
+		pet.setId(id);
+		return owner;
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
+
+/**
+ * Test class for {@link VectorStoreController}
+ */
+@ExtendWith(MockitoExtension.class)
+class VectorStoreControllerTests {
+
+	@Mock
+	private VectorStore vectorStore;
+
+	@Mock
+	private VetIngestionPipeline ingestionPipeline;
+
+	@Mock
+	private VetIndex vetIndex;
+
+	@Test
+	void shouldRetryFailedLoad() throws Exception {
+		given(this.ingestionPipeline.ingest(anyInt(), any())).willThrow(new IllegalStateException("Rate limited"))
+			.willThrow(new IllegalStateException("Rate limited"))
+			.willReturn(3);
+		VectorStoreController controller = new VectorStoreController(this.vectorStore, this.ingestionPipeline,
+				this.vetIndex, Duration.ofMillis(1));
+
+		controller.warmUp();
+
+		assertThat(controller.getState()).isEqualTo(State.READY);
+		verify(this.ingestionPipeline, times(3)).ingest(anyInt(), any());
+		verify(this.vetIndex).build();
+	}
+
+}
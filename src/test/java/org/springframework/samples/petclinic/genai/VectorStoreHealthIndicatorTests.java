@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
+
+/**
+ * Test class for {@link VectorStoreHealthIndicator}
+ */
+@ExtendWith(MockitoExtension.class)
+class VectorStoreHealthIndicatorTests {
+
+	@Mock
+	private VectorStoreController vectorStoreController;
+
+	@Test
+	void shouldStayReadyWhileLoadingWhenOnlyChatIsGated() {
+		given(this.vectorStoreController.getState()).willReturn(State.LOADING);
+
+		assertThat(new VectorStoreHealthIndicator(this.vectorStoreController, "chat").health().getStatus())
+			.isEqualTo(Status.UP);
+	}
+
+	@Test
+	void shouldGateReadinessUntilLoaded() {
+		VectorStoreHealthIndicator indicator = new VectorStoreHealthIndicator(this.vectorStoreController, "readiness");
+
+		given(this.vectorStoreController.getState()).willReturn(State.LOADING);
+		assertThat(indicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+		given(this.vectorStoreController.getState()).willReturn(State.FAILED);
+		assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+		given(this.vectorStoreController.getState()).willReturn(State.READY);
+		assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import java.nio.file.Path;
+
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Converts a {@code vectorstore.json} written by
+ * {@link org.springframework.ai.vectorstore.SimpleVectorStore} into a binary
+ * {@link VectorStoreSnapshot}, see {@link VectorStoreSnapshot#convertJson}.
+ * <p>
+ * Usage: {@code VectorStoreSnapshotConverter <vectorstore.json> <vectorstore.bin>}
+ */
+public final class VectorStoreSnapshotConverter {
+
+	private VectorStoreSnapshotConverter() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			System.err.println("Usage: VectorStoreSnapshotConverter <vectorstore.json> <vectorstore.bin>");
+			System.exit(1);
+		}
+		VectorStoreSnapshot.convertJson(new FileSystemResource(args[0]), Path.of(args[1]));
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+
+/**
+ * Test class for {@link VetIndex}
+ */
+@ExtendWith(MockitoExtension.class)
+class VetIndexTests {
+
+	@Mock
+	private VetRepository vetRepository;
+
+	private VetIndex index;
+
+	// The vets in the database, by id
+	private final Map<Integer, Vet> vets = new HashMap<>();
+
+	@BeforeEach
+	void setup() {
+		List.of(vet(1, "James", "Carter"), vet(2, "Helen", "Leary", "radiology"),
+				vet(3, "Linda", "Douglas", "surgery", "dentistry"), vet(4, "Rafael", "Ortega", "surgery"))
+			.forEach(vet -> this.vets.put(vet.getId(), vet));
+		given(this.vetRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any(Limit.class)))
+			.willReturn(List.copyOf(this.vets.values()));
+		lenient().when(this.vetRepository.findByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Integer> ids = invocation.getArgument(0);
+			return ids.stream().map(this.vets::get).filter(Objects::nonNull).toList();
+		});
+		this.index = new VetIndex(this.vetRepository);
+		this.index.build();
+	}
+
+	@Test
+	void shouldIntersectSpecialtiesAndNames() {
+		assertThat(this.index.find(vet(null, null, null, "Surgery"), 20).get()).hasSize(2);
+		assertThat(this.index.find(vet(null, null, null, "surgery", "dentistry"), 20).get()).singleElement()
+			.asString()
+			.contains("Douglas");
+		assertThat(this.index.find(vet(null, null, "ortega", "surgery"), 20).get()).singleElement()
+			.asString()
+			.contains("Rafael");
+		assertThat(this.index.find(vet(null, "Helen", null, "surgery"), 20).get()).isEmpty();
+		assertThat(this.index.find(null, 3).get()).hasSize(3);
+	}
+
+	@Test
+	void shouldNotAnswerUnknownValues() {
+		assertThat(this.index.find(vet(null, null, null, "radiologist"), 20)).isEmpty();
+		assertThat(this.index.find(vet(null, null, "Cartier"), 20)).isEmpty();
+	}
+
+	@Test
+	void shouldFollowUpdatesAndRemovals() {
+		this.vets.put(1, vet(1, "James", "Carter", "radiology"));
+		this.vets.remove(2);
+		this.index.update(List.of(this.vets.get(1)));
+		this.index.remove(List.of(2));
+
+		assertThat(this.index.find(vet(null, null, null, "radiology"), 20).get()).singleElement()
+			.asString()
+			.contains("Carter");
+		assertThat(this.index.find(vet(null, null, "Leary"), 20)).isEmpty();
+	}
+
+	private static Vet vet(Integer id, String firstName, String lastName, String... specialties) {
+		Vet vet = new Vet();
+		vet.setId(id);
+		vet.setFirstName(firstName);
+		vet.setLastName(lastName);
+		for (String name : specialties) {
+			Specialty specialty = new Specialty();
+			specialty.setName(name);
+			vet.addSpecialty(specialty);
+		}
+		return vet;
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.samples.petclinic.genai.VectorStoreController.State;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+
+/**
+ * Test class for {@link VetIndexer}
+ */
+@ExtendWith(MockitoExtension.class)
+class VetIndexerTests {
+
+	@Mock
+	private VectorStore vectorStore;
+
+	@Mock
+	private VetRepository vetRepository;
+
+	@Mock
+	private VectorStoreController vectorStoreController;
+
+	@Captor
+	private ArgumentCaptor<List<Document>> documents;
+
+	private VetIndexer indexer;
+
+	@BeforeEach
+	void setup() {
+		this.indexer = new VetIndexer(this.vectorStore, this.vetRepository, new VetIndex(this.vetRepository),
+				this.vectorStoreController, Duration.ofMillis(50));
+	}
+
+	@AfterEach
+	void shutdown() {
+		this.indexer.destroy();
+	}
+
+	@Test
+	void shouldReembedChangedVetsInOneBatch() {
+		given(this.vectorStoreController.getState()).willReturn(State.READY);
+		Specialty radiology = new Specialty();
+		radiology.setId(1);
+		radiology.setName("radiology");
+		given(this.vetRepository.findIdsBySpecialtyIdIn(Set.of(1))).willReturn(List.of(3));
+		given(this.vetRepository.findByIdIn(Set.of(2, 3, 4))).willReturn(List.of(vet(2, null), vet(3, radiology)));
+
+		this.indexer.vetsChanged(List.of(2));
+		this.indexer.specialtiesChanged(List.of(1));
+		this.indexer.vetsChanged(List.of(4));
+
+		verify(this.vectorStore, timeout(10000)).add(this.documents.capture());
+		assertThat(this.documents.getValue()).extracting(Document::getId).containsExactlyInAnyOrder("vet-2", "vet-3");
+		assertThat(this.documents.getValue()).anyMatch(document -> document.getText().contains("radiology"));
+		verify(this.vectorStore).delete(List.of("vet-4"));
+	}
+
+	@Test
+	void shouldHoldChangesWhileTheVectorStoreLoads() {
+		given(this.vectorStoreController.getState()).willReturn(State.LOADING, State.LOADING, State.READY);
+		given(this.vetRepository.findByIdIn(Set.of(2))).willReturn(List.of(vet(2, null)));
+
+		this.indexer.vetsChanged(List.of(2));
+
+		verify(this.vectorStore, timeout(10000)).add(this.documents.capture());
+		verify(this.vectorStoreController, times(3)).getState();
+		assertThat(this.documents.getValue()).extracting(Document::getId).containsExactly("vet-2");
+	}
+
+	private static Vet vet(int id, Specialty specialty) {
+		Vet vet = new Vet();
+		vet.setId(id);
+		vet.setFirstName("First" + id);
+		vet.setLastName("Last" + id);
+		if (specialty != null) {
+			vet.addSpecialty(specialty);
+		}
+		return vet;
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.samples.petclinic.genai.SnapshotVectorStoreTests.KeywordEmbeddingModel;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+
+/**
+ * Test class for {@link VetIngestionPipeline}
+ */
+@ExtendWith(MockitoExtension.class)
+class VetIngestionPipelineTests {
+
+	private static final int VETS = 45;
+
+	@Mock
+	private VetRepository vetRepository;
+
+	@TempDir
+	Path directory;
+
+	private final ThrottledEmbeddingModel embeddingModel = new ThrottledEmbeddingModel();
+
+	private final List<Vet> vets = new ArrayList<>();
+
+	@BeforeEach
+	void setup() {
+		for (int id = 1; id <= VETS; id++) {
+			Vet vet = new Vet();
+			vet.setId(id);
+			vet.setFirstName("First" + id);
+			vet.setLastName("Last" + id);
+			this.vets.add(vet);
+		}
+		// Only used to report the progress of the ingestion
+		lenient().when(this.vetRepository.countVets()).thenReturn(VETS);
+		given(this.vetRepository.findByIdGreaterThanOrderByIdAsc(anyInt(), any(Limit.class))).willAnswer(invocation -> {
+			int afterId = invocation.getArgument(0);
+			Limit limit = invocation.getArgument(1);
+			return this.vets.stream().filter(vet -> vet.getId() > afterId).limit(limit.max()).toList();
+		});
+	}
+
+	@Test
+	void shouldEmbedAllVetsWithBoundedConcurrency() throws Exception {
+		SnapshotVectorStore store = SnapshotVectorStore.builder(this.embeddingModel).build();
+		File snapshot = this.directory.resolve("vectorstore.bin").toFile();
+
+		int count = pipeline(store).ingest(0, snapshot);
+
+		assertThat(count).isEqualTo(VETS);
+		assertThat(this.embeddingModel.maxConcurrent.get()).isBetween(2, 3);
+		assertThat(VetIngestionPipeline.checkpoint(snapshot)).isNull();
+		assertThat(search(store)).hasSize(VETS);
+	}
+
+	@Test
+	void shouldResumeFromCheckpointAfterFailure() throws Exception {
+		File snapshot = this.directory.resolve("vectorstore.bin").toFile();
+		this.embeddingModel.failOn = "Last38";
+		SnapshotVectorStore store = SnapshotVectorStore.builder(this.embeddingModel).build();
+		assertThatIllegalStateException().isThrownBy(() -> pipeline(store).ingest(0, snapshot));
+
+		Integer checkpoint = VetIngestionPipeline.checkpoint(snapshot);
+		assertThat(checkpoint).isNotNull().isLessThan(38);
+
+		this.embeddingModel.failOn = null;
+		SnapshotVectorStore resumed = SnapshotVectorStore.builder(this.embeddingModel).build();
+		resumed.load(new FileSystemResource(snapshot));
+		pipeline(resumed).ingest(checkpoint, snapshot);
+
+		assertThat(search(resumed)).hasSize(VETS);
+		assertThat(VetIngestionPipeline.checkpoint(snapshot)).isNull();
+	}
+
+	@Test
+	void shouldReconcileSnapshotWithChangedVets() throws Exception {
+		SnapshotVectorStore store = SnapshotVectorStore.builder(this.embeddingModel).build();
+		this.vets.get(0).setLastName("Aa");
+		store.add(List.of(VetDocuments.toDocument(this.vets.get(0)), VetDocuments.toDocument(this.vets.get(1)),
+				new Document(VetDocuments.id(99), "Deleted vet", Map.of())));
+		File snapshot = this.directory.resolve("vectorstore.bin").toFile();
+		store.save(snapshot);
+		this.vets.get(1).setLastName("Renamed");
+		// Same String.hashCode as "Aa"
+		this.vets.get(0).setLastName("BB");
+
+		SnapshotVectorStore reloaded = SnapshotVectorStore.builder(this.embeddingModel).build();
+		reloaded.load(new FileSystemResource(snapshot));
+		int changed = pipeline(reloaded).reconcile(reloaded);
+
+		// Vets 1 and 2 are renamed, vets 3 to 45 are new and vet 99 was deleted
+		assertThat(changed).isEqualTo(VETS + 1);
+		assertThat(search(reloaded)).hasSize(VETS)
+			.extracting(Document::getText)
+			.anyMatch(text -> text.contains("Renamed"))
+			.anyMatch(text -> text.contains("BB"));
+		assertThat(pipeline(reloaded).reconcile(reloaded)).isZero();
+	}
+
+	private VetIngestionPipeline pipeline(SnapshotVectorStore store) {
+		// 10 vets per query, 5 per batch, 3 batches in flight, checkpoint every 2 batches
+		return new VetIngestionPipeline(store, this.vetRepository, 10, 5, 3, 2);
+	}
+
+	private static List<Document> search(SnapshotVectorStore store) {
+		return store.similaritySearch(SearchRequest.builder().query("vet").topK(1000).build());
+	}
+
+	static class ThrottledEmbeddingModel extends KeywordEmbeddingModel {
+
+		private final AtomicInteger concurrent = new AtomicInteger();
+
+		private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+		private volatile String failOn;
+
+		@Override
+		public List<float[]> embed(List<Document> documents, EmbeddingOptions options,
+				BatchingStrategy batchingStrategy) {
+			this.maxConcurrent.accumulateAndGet(this.concurrent.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+				if (this.failOn != null && documents.stream().anyMatch(d -> d.getText().contains(this.failOn))) {
+					throw new IllegalStateException("Embedding endpoint unavailable");
+				}
+				return super.embed(documents, options, batchingStrategy);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(ex);
+			}
+			finally {
+				this.concurrent.decrementAndGet();
+			}
+		}
+
+	}
+
+}
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -212,6 +213,14 @@ class ClinicServiceTests {
 		assertThat(vet.getSpecialties().get(1).getName()).isEqualTo("dentistry");
 	}
 
+	@Test
+	void shouldFindVetsByIdsAndSpecialties() {
+		Collection<Vet> vets = this.vets.findByIdIn(List.of(2, 100_000));
+		assertThat(vets).extracting(Vet::getLastName).containsExactly("Leary");
+
+		assertThat(this.vets.findIdsBySpecialtyIdIn(List.of(1))).contains(131).doesNotContain(220);
+	}
+
 	@Test
 	@Transactional
 	void shouldAddNewVisitForPet() {
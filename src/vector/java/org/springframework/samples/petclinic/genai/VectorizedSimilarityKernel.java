@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.genai;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link SimilarityKernel} on the incubating Vector API, processing as many dimensions
+ * per instruction as the CPU allows. Only built by the {@code vector-api} profile, and
+ * only loaded by {@link SimilarityKernels} when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorizedSimilarityKernel implements SimilarityKernel {
+
+	private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+	@Override
+	public float dot(float[] a, float[] b) {
+		FloatVector sum = FloatVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = SPECIES.loopBound(a.length); i < bound; i += SPECIES.length()) {
+			sum = FloatVector.fromArray(SPECIES, a, i).fma(FloatVector.fromArray(SPECIES, b, i), sum);
+		}
+		float result = sum.reduceLanes(VectorOperators.ADD);
+		for (; i < a.length; i++) {
+			result += a[i] * b[i];
+		}
+		return result;
+	}
+
+	@Override
+	public float cosine(float[] a, float[] b) {
+		FloatVector dot = FloatVector.zero(SPECIES);
+		FloatVector normA = FloatVector.zero(SPECIES);
+		FloatVector normB = FloatVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = SPECIES.loopBound(a.length); i < bound; i += SPECIES.length()) {
+			FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+			FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+			dot = va.fma(vb, dot);
+			normA = va.fma(va, normA);
+			normB = vb.fma(vb, normB);
+		}
+		float sumDot = dot.reduceLanes(VectorOperators.ADD);
+		float sumA = normA.reduceLanes(VectorOperators.ADD);
+		float sumB = normB.reduceLanes(VectorOperators.ADD);
+		for (; i < a.length; i++) {
+			sumDot += a[i] * b[i];
+			sumA += a[i] * a[i];
+			sumB += b[i] * b[i];
+		}
+		return (sumA == 0 || sumB == 0) ? 0 : (float) (sumDot / Math.sqrt((double) sumA * sumB));
+	}
+
+	@Override
+	public float squaredL2(float[] a, float[] b) {
+		FloatVector sum = FloatVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = SPECIES.loopBound(a.length); i < bound; i += SPECIES.length()) {
+			FloatVector difference = FloatVector.fromArray(SPECIES, a, i).sub(FloatVector.fromArray(SPECIES, b, i));
+			sum = difference.fma(difference, sum);
+		}
+		float result = sum.reduceLanes(VectorOperators.ADD);
+		for (; i < a.length; i++) {
+			float difference = a[i] - b[i];
+			result += difference * difference;
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "vectorized (" + SPECIES.vectorBitSize() + " bits)";
+	}
+
+}